@@ -1,6 +1,5 @@
 package chess;
 
-import chess.engine.ZobristHash;
 import chess.engine.board.Board;
 import chess.engine.player.ai.MiniMax;
 import chess.engine.player.ai.MoveStrategy;
@@ -14,7 +13,6 @@ public class JBotvinnik {
 
 	public static void main(String[] args) {
 
-		ZobristHash.fillArray();
 		Board board = Board.createStandardBoard();
 		
 		
@@ -41,6 +41,11 @@ public enum Side {
 			return 0;
 		}
 
+		@Override
+		public Side getOpponentSide() {
+			return BLACK;
+		}
+
 	},
 	BLACK {
 		@Override
@@ -77,6 +82,11 @@ public enum Side {
 		public int getEnum() {
 			return 1;
 		}
+
+		@Override
+		public Side getOpponentSide() {
+			return WHITE;
+		}
 	};
 
 	public abstract int getDirection();
@@ -90,4 +100,6 @@ public enum Side {
 	public abstract Player choosePlayer(WhitePlayer whiteplayer, BlackPlayer blackplayer);
 
 	public abstract int getEnum();
+
+	public abstract Side getOpponentSide();
 }
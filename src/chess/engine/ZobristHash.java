@@ -1,113 +1,196 @@
 package chess.engine;
 
-import java.security.SecureRandom;
-
+import chess.engine.board.BitBoards;
 import chess.engine.board.Board;
 import chess.engine.board.BoardUtils;
 import chess.engine.board.Move;
-import chess.engine.board.Move.EnPassant;
+import chess.engine.board.Move.CastleMove;
+import chess.engine.board.Move.PawnPromotion;
 import chess.engine.pieces.Pawn;
 import chess.engine.pieces.Piece;
+import chess.engine.pieces.Piece.PieceType;
+
+/*
+ * Zobrist hashing: a position's hash is the XOR of one random key per piece on its tile, one for the en
+ * passant file (whenever the board has an en passant pawn), one for the castling rights and one if black
+ * is to move. Making a move XORs out what it removes and XORs in what it adds.
+ *
+ * The keys are generated once, when the class loads, by a xorshift64* generator with a fixed seed, so
+ * every run and every thread sees the same immutable keys and the same hash for a position. They are
+ * not Polyglot's published table, so hashes cannot be used to look up Polyglot opening books.
+ *
+ * Running with -Dchess.zobrist.verify=true checks every incrementally updated hash (Board and
+ * SearchBoard) against a full recomputation and throws on the first mismatch. It is meant for tests
+ * and debugging; it makes every move several times slower.
+ */
+
+public final class ZobristHash {
 
-public class ZobristHash {
+	public static final boolean VERIFY = Boolean.getBoolean("chess.zobrist.verify");
 
-	private static final int NUM_COLORS = 2;
-	private static final int NUM_PIECES = 6;
+	private static final long SEED = 1070372L;
+	private static final int NUM_PIECES = 12; // piece indexes, see BitBoards.pieceIndex
+
+	private static final long[] PIECE_KEYS = new long[NUM_PIECES * BoardUtils.NUM_TILES]; // [piece][tile]
+	private static final long[] EN_PASSANT_KEYS = new long[BoardUtils.TILES_PER_ROW]; // by file
+	private static final long[] CASTLING_KEYS = new long[BoardUtils.ALL_CASTLING_RIGHTS + 1]; // by rights bitmask
+	private static final long BLACK_TO_MOVE_KEY;
+
+	static {
+		long state = SEED;
+		for (int i = 0; i < PIECE_KEYS.length; i++) {
+			state = next(state);
+			PIECE_KEYS[i] = scramble(state);
+		}
+		for (int file = 0; file < EN_PASSANT_KEYS.length; file++) {
+			state = next(state);
+			EN_PASSANT_KEYS[file] = scramble(state);
+		}
+		// one key per right (KQkq); a set of rights hashes as the XOR of its keys
+		final long[] rightKeys = new long[4];
+		for (int right = 0; right < rightKeys.length; right++) {
+			state = next(state);
+			rightKeys[right] = scramble(state);
+		}
+		for (int rights = 0; rights < CASTLING_KEYS.length; rights++) {
+			for (int right = 0; right < rightKeys.length; right++) {
+				if ((rights & (1 << right)) != 0) {
+					CASTLING_KEYS[rights] ^= rightKeys[right];
+				}
+			}
+		}
+		state = next(state);
+		BLACK_TO_MOVE_KEY = scramble(state);
+	}
 
-	public static long zobristArray[][][] = new long[BoardUtils.NUM_TILES][NUM_COLORS][NUM_PIECES];
-	public static long zobristEPFile[] = new long[8];
-	public static long zobristCastle[] = new long[4]; // KQkq
-	public static long zobristBlackMove;	
-	
-	public static int DEFAULT_TABLE_SIZE = 1000000;
-	
 	private ZobristHash() {
 		throw new RuntimeException("Cannot be instantiated");
 	}
-	
-	public static long random64() {
-		SecureRandom rand = new SecureRandom();
-		return rand.nextLong();
+
+	/*
+	 * xorshift64*: a fast generator with good enough statistics for hash keys.
+	 */
+	private static long next(long state) {
+		state ^= state >>> 12;
+		state ^= state << 25;
+		state ^= state >>> 27;
+		return state;
 	}
 
-	public static void fillArray() {
-		for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
-			for (int color = 0; color < NUM_COLORS; color++) {
-				for (int pieceType = 0; pieceType < NUM_PIECES; pieceType++) {
-					zobristArray[tile][color][pieceType] = random64();
-				}
-			}
-		}
-		for (int file = 0; file < BoardUtils.TILES_PER_ROW; file++) {
-			zobristEPFile[file] = random64();
-		}
-		for (int castleMoves = 0; castleMoves < 4; castleMoves++) {
-			zobristCastle[castleMoves] = random64();
-		}
-		zobristBlackMove = random64();
+	private static long scramble(final long state) {
+		return state * 2685821657736338717L;
 	}
 
 	/*
-	 * SHOULD ONLY BE CALLED ONCE AT STARTUP!
+	 * Key accessors. Tiles are 0 - 63 coordinates, pieces are piece indexes.
 	 */
 
+	public static long pieceKey(final int piece, final int tile) {
+		return PIECE_KEYS[piece * BoardUtils.NUM_TILES + tile];
+	}
+
+	public static long pieceKey(final Piece piece, final int tile) {
+		return pieceKey(BitBoards.pieceIndex(piece.getSide().getEnum(), piece.getType().getEnum()), tile);
+	}
+
+	public static long enPassantKey(final int file) {
+		return EN_PASSANT_KEYS[file];
+	}
+
+	/*
+	 * The key of a whole set of castling rights (KQkq bits, see BoardUtils).
+	 */
+	public static long castlingKey(final int castlingRights) {
+		return CASTLING_KEYS[castlingRights];
+	}
+
+	public static long blackToMoveKey() {
+		return BLACK_TO_MOVE_KEY;
+	}
+
+	/*
+	 * Full hash of a board.
+	 */
 	public static long getZobristHash(final Board board) {
 		long returnKey = 0;
 		// XOR in board state
-		for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
-			final Piece current = board.getTile(tile).getPiece();
-
-			if (current != null) {
-				final int side = current.getSide().getEnum();
-				returnKey ^= zobristArray[tile][side][current.getType().getEnum()];
+		for (final Side side : Side.values()) {
+			for (final PieceType type : PieceType.values()) {
+				final int piece = BitBoards.pieceIndex(side.getEnum(), type.getEnum());
+				long pieces = board.getBitboard(side, type);
+				while (pieces != 0) {
+					final int tile = BitBoards.firstSquare(pieces);
+					pieces &= pieces - 1;
+					returnKey ^= pieceKey(piece, tile);
+				}
 			}
 		}
 		// XOR in en passant
-		Pawn ep = board.getEnPassantPawn();
+		final Pawn ep = board.getEnPassantPawn();
 		if (ep != null) {
-			int file = ep.getPosition() % BoardUtils.TILES_PER_ROW; // file 0 -
-																	// 7
-			returnKey ^= zobristEPFile[file];
+			returnKey ^= enPassantKey(ep.getPosition() % BoardUtils.TILES_PER_ROW);
 		}
 		// XOR in castling rights
-		if (board.whitePlayer().canKingsideCastle())
-			returnKey ^= zobristCastle[0];
-		if (board.whitePlayer().canQueensideCastle())
-			returnKey ^= zobristCastle[1];
-		if (board.blackPlayer().canKingsideCastle())
-			returnKey ^= zobristCastle[2];
-		if (board.blackPlayer().canQueensideCastle())
-			returnKey ^= zobristCastle[3];
-
+		returnKey ^= castlingKey(board.getCastlingRights());
 		// XOR in blackToMove
-		 if (board.currentPlayer().getSide().isBlack()) returnKey ^= zobristBlackMove;
+		if (board.currentPlayer().getSide().isBlack()) {
+			returnKey ^= BLACK_TO_MOVE_KEY;
+		}
 		return returnKey;
 	}
 
+	/*
+	 * Hash of the board a move leads to, from the hash of the board it is made
+	 * on: every move type, including castling (king, rook and rights), en
+	 * passant (the captured pawn's own tile) and promotions (the promoted
+	 * piece lands).
+	 */
 	public static long updateZobristHash(long currentHash, final Move move) {
-		// XOR out piece
-		currentHash ^= zobristArray[BoardUtils.mailbox[move.getStart()]][move.getMovedPiece().getSide().getEnum()][move
-				.getMovedPiece().getType().getEnum()];
-		// XOR in piece moved
-		currentHash ^= zobristArray[BoardUtils.mailbox[move.getDestination()]][move.getMovedPiece().getSide()
-				.getEnum()][move.getMovedPiece().getType().getEnum()];
-		// XOR out captured piece -> delegate?
-		Piece taken = move.getAttackedPiece();
+		final Board board = move.getBoard();
+		final Piece moved = move.getMovedPiece();
+		final int start = moved.getPosition();
+		final int destination = BoardUtils.mailbox[move.getDestination()];
+		// XOR out the piece from its tile and in where it lands, promoted or not
+		currentHash ^= pieceKey(moved, start);
+		final int landed = move instanceof PawnPromotion
+				? ((PawnPromotion) move).getPromotionPiece().getType().getEnum() : moved.getType().getEnum();
+		currentHash ^= pieceKey(BitBoards.pieceIndex(moved.getSide().getEnum(), landed), destination);
+		// XOR out the captured piece, from its own tile in case of en passant
+		final Piece taken = move.getAttackedPiece();
 		if (taken != null) {
-			currentHash ^= zobristArray[taken.getPosition()][taken.getSide().getEnum()][taken.getType().getEnum()];
+			currentHash ^= pieceKey(taken, taken.getPosition());
+		}
+		if (move instanceof CastleMove) {
+			final CastleMove castle = (CastleMove) move;
+			final Piece rook = castle.getCastleRook();
+			currentHash ^= pieceKey(rook, rook.getPosition());
+			currentHash ^= pieceKey(rook, BoardUtils.mailbox[castle.getCastleRookDestination()]);
 		}
-		if (move instanceof EnPassant) {
-			Pawn ep = (Pawn) move.getAttackedPiece();
-			currentHash ^= zobristArray[ep.getPosition()][ep.getSide().getEnum()][ep.getType().getEnum()];
+		// en passant: the old file goes, and a pawn that moved two ranks forward sets a new one
+		final Pawn ep = board.getEnPassantPawn();
+		if (ep != null) {
+			currentHash ^= enPassantKey(ep.getPosition() % BoardUtils.TILES_PER_ROW);
 		}
-		// if castle, XOR castling rights -> delegate?
-		// if (move instanceof CastleMove) {
-		// CastleMove castle = (CastleMove) move;
-		// TODO
-		// }
+		if (moved.getType() == PieceType.PAWN
+				&& destination == start + 2 * BoardUtils.TILES_PER_ROW * (moved.getSide().isWhite() ? -1 : 1)) {
+			currentHash ^= enPassantKey(destination % BoardUtils.TILES_PER_ROW);
+		}
+		// castling rights lost by moving or capturing a king or rook
+		final int rights = board.getCastlingRights();
+		currentHash ^= castlingKey(rights) ^ castlingKey(BoardUtils.updateCastlingRights(rights, start, destination));
 		// XOR in side to move
-		currentHash ^= zobristBlackMove;
-		return currentHash; 
+		currentHash ^= BLACK_TO_MOVE_KEY;
+		return currentHash;
 	}
 
+	/*
+	 * For VERIFY mode: throws if an incrementally updated hash differs from
+	 * the full one.
+	 */
+	public static void verify(final long incremental, final long full, final Object where) {
+		if (incremental != full) {
+			throw new RuntimeException("Incremental hash " + Long.toHexString(incremental) + " differs from full hash "
+					+ Long.toHexString(full) + " after " + where);
+		}
+	}
 }
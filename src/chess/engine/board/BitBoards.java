@@ -0,0 +1,130 @@
+package chess.engine.board;
+
+/*
+ * Precomputed attack sets and helpers for the bitboard representation of the board. Bit i of a
+ * bitboard stands for tile i, so bitboards use the same 0 - 63 coordinates as Tile and Piece
+ * (0 = a8, 63 = h1). Set bits are iterated with the usual idiom:
+ *
+ * while (bits != 0) {
+ *     final int square = Long.numberOfTrailingZeros(bits);
+ *     bits &= bits - 1;
+ *     ...
+ * }
+ */
+
+public final class BitBoards {
+
+	public static final long EMPTY = 0L;
+
+	// mailbox offsets, same as the CANDIDATE_MOVE_COORDINATES of the leaper pieces
+	private static final int[] KNIGHT_OFFSETS = { -21, -19, -12, -8, 8, 12, 19, 21 };
+	private static final int[] KING_OFFSETS = { -10, -1, 1, 10, -11, -9, 9, 11 };
+	private static final int[] WHITE_PAWN_CAPTURE_OFFSETS = { -9, -11 };
+	private static final int[] BLACK_PAWN_CAPTURE_OFFSETS = { 9, 11 };
+
+	public static final long[] KNIGHT_ATTACKS = initializeLeaperAttacks(KNIGHT_OFFSETS);
+	public static final long[] KING_ATTACKS = initializeLeaperAttacks(KING_OFFSETS);
+	// [side][tile]: tiles attacked by a pawn of the given side standing on tile
+	public static final long[][] PAWN_ATTACKS = { initializeLeaperAttacks(WHITE_PAWN_CAPTURE_OFFSETS),
+			initializeLeaperAttacks(BLACK_PAWN_CAPTURE_OFFSETS) };
+
+	// [tile][tile]: for two tiles on a common rank, file or diagonal, the tiles strictly between them
+	// (BETWEEN) and the whole line through both, edge to edge (LINE); empty for unaligned tiles
+	public static final long[][] BETWEEN = new long[BoardUtils.NUM_TILES][BoardUtils.NUM_TILES];
+	public static final long[][] LINE = new long[BoardUtils.NUM_TILES][BoardUtils.NUM_TILES];
+
+	static {
+		initializeLines();
+	}
+
+	private BitBoards() {
+		throw new RuntimeException("You cannot instantiate this class.");
+	}
+
+	/*
+	 * Builds the attack set of a leaper piece on every tile by walking the
+	 * mailbox offsets once, so move generation only has to look the set up.
+	 */
+	private static long[] initializeLeaperAttacks(final int[] offsets) {
+		final long[] attacks = new long[BoardUtils.NUM_TILES];
+		for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+			for (final int offset : offsets) {
+				final int candidate = BoardUtils.board64[tile] + offset;
+				if (BoardUtils.inBoard(candidate)) {
+					attacks[tile] |= squareBit(BoardUtils.mailbox[candidate]);
+				}
+			}
+		}
+		return attacks;
+	}
+
+	/*
+	 * Walks the mailbox rays of a queen from every tile to fill BETWEEN and
+	 * LINE.
+	 */
+	private static void initializeLines() {
+		for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+			for (final int offset : KING_OFFSETS) {
+				// the full line is the ray in this direction plus the ray behind the tile
+				long line = squareBit(tile);
+				for (final int direction : new int[] { offset, -offset }) {
+					int candidate = BoardUtils.board64[tile] + direction;
+					while (BoardUtils.inBoard(candidate)) {
+						line |= squareBit(BoardUtils.mailbox[candidate]);
+						candidate += direction;
+					}
+				}
+				long between = 0;
+				int candidate = BoardUtils.board64[tile] + offset;
+				while (BoardUtils.inBoard(candidate)) {
+					final int other = BoardUtils.mailbox[candidate];
+					BETWEEN[tile][other] = between;
+					LINE[tile][other] = line;
+					between |= squareBit(other);
+					candidate += offset;
+				}
+			}
+		}
+	}
+
+	/*
+	 * Returns a bitboard with only the bit of the given 0 - 63 tile set.
+	 */
+	public static long squareBit(final int tile) {
+		return 1L << tile;
+	}
+
+	public static boolean isSet(final long bitboard, final int tile) {
+		return (bitboard & squareBit(tile)) != 0;
+	}
+
+	/*
+	 * Returns the lowest set tile of a non-empty bitboard.
+	 */
+	public static int firstSquare(final long bitboard) {
+		return Long.numberOfTrailingZeros(bitboard);
+	}
+
+	public static int popCount(final long bitboard) {
+		return Long.bitCount(bitboard);
+	}
+
+	/*
+	 * Index of a side/piece type pair into an array of twelve bitboards:
+	 * white pieces occupy 0 - 5, black pieces 6 - 11, each in PieceType order.
+	 */
+	public static int pieceIndex(final int side, final int pieceType) {
+		return side * 6 + pieceType;
+	}
+
+	public static String toString(final long bitboard) {
+		final StringBuilder builder = new StringBuilder();
+		for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+			builder.append(isSet(bitboard, tile) ? " 1" : " .");
+			if ((tile + 1) % BoardUtils.TILES_PER_ROW == 0) {
+				builder.append("\n");
+			}
+		}
+		return builder.toString();
+	}
+}
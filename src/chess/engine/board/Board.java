@@ -40,7 +40,12 @@ public class Board {
 	private final List<Tile> gameBoard; // all tiles on 8x8 board
 	private final Collection<Piece> whitePieces; // all white pieces in gameBoard
 	private final Collection<Piece> blackPieces; // all black pieces in gameBoard
+	private final long[] pieceBitboards; // [side * 6 + piece type], see BitBoards.pieceIndex
+	private final long[] sideOccupancy; // [side]: all tiles holding a piece of that side
+	private final long occupancy; // all occupied tiles
 	private final Pawn enPassantPawn;
+	private final int castlingRights; // KQkq bits, see BoardUtils
+	private final int plyCount; // half-moves played in the game
 	private long currentHash;
 
 	// player objects
@@ -53,8 +58,8 @@ public class Board {
 	 * 
 	 * We pass in a builder-pattern class (see class definition below) to help
 	 * us dynamically build a board. This constructor also initializes the
-	 * player fields and piece lists, in addition to getting the psuedo-legal
-	 * starting moves.
+	 * player fields and piece lists; legal moves are only generated once a
+	 * player is asked for them.
 	 * 
 	 * @param builder: Builder object to build the board representation (list of
 	 * Tile objects)
@@ -63,17 +68,30 @@ public class Board {
 		this.gameBoard = createGameBoard(builder);
 		this.whitePieces = calculateActivePieces(this.gameBoard, Side.WHITE);
 		this.blackPieces = calculateActivePieces(this.gameBoard, Side.BLACK);
+		this.pieceBitboards = createPieceBitboards(builder);
+		this.sideOccupancy = new long[2];
+		for (int side = 0; side < 2; side++) {
+			for (int type = 0; type < 6; type++) {
+				this.sideOccupancy[side] |= this.pieceBitboards[BitBoards.pieceIndex(side, type)];
+			}
+		}
+		this.occupancy = this.sideOccupancy[0] | this.sideOccupancy[1];
 		this.enPassantPawn = builder.enPassantPawn;
+		this.castlingRights = builder.castlingRights;
+		this.plyCount = builder.plyCount;
 		this.currentHash = builder.hash;
 
-		//pseudo-legal collection
-		final Collection<Move> whiteLegalMoves = calculateLegalMoves(this.whitePieces);
-		final Collection<Move> blackLegalMoves = calculateLegalMoves(this.blackPieces);
-
-		this.whiteplayer = new WhitePlayer(this, whiteLegalMoves, blackLegalMoves);
-		this.blackplayer = new BlackPlayer(this, whiteLegalMoves, blackLegalMoves);
+		// each player generates its moves the first time they are asked for
+		this.whiteplayer = new WhitePlayer(this);
+		this.blackplayer = new BlackPlayer(this);
 		this.currentPlayer = builder.sideToMove.choosePlayer(this.whiteplayer, this.blackplayer);
-		// parameters help determine legal castle moves
+
+		// a board built without a hash (a new game, a FEN) hashes itself in full
+		if (!builder.hashSet) {
+			this.currentHash = ZobristHash.getZobristHash(this);
+		} else if (ZobristHash.VERIFY) {
+			ZobristHash.verify(this.currentHash, ZobristHash.getZobristHash(this), "\n" + this);
+		}
 	}
 
 	/*
@@ -93,20 +111,6 @@ public class Board {
 		return builder.toString();
 	}
 
-	/*
-	 * Calculate legal moves given a list of pieces.
-	 * 
-	 * @param pieceList: A collection of pieces upon which to calculate all
-	 * legal moves of all pieces.
-	 */
-	private Collection<Move> calculateLegalMoves(Collection<Piece> pieceList) {
-		final List<Move> legal = new ArrayList<>();
-		for (final Piece p : pieceList) {
-			legal.addAll(p.calculateLegalMoves(this));
-		}
-		return ImmutableList.copyOf(legal);
-	}
-
 	/*
 	 * Get all pieces on the board of a certain color.
 	 * 
@@ -134,6 +138,40 @@ public class Board {
 		return this.gameBoard.get(candidateDestination);
 	}
 
+	/*
+	 * Bitboard accessors. Each bitboard has bit i set if tile i (0 - 63) holds
+	 * a matching piece; see BitBoards for helpers to iterate the set bits.
+	 */
+
+	public long getBitboard(final Side side, final PieceType type) {
+		return this.pieceBitboards[BitBoards.pieceIndex(side.getEnum(), type.getEnum())];
+	}
+
+	public long getOccupancy(final Side side) {
+		return this.sideOccupancy[side.getEnum()];
+	}
+
+	public long getOccupancy() {
+		return this.occupancy;
+	}
+
+	/*
+	 * Returns whether any piece of the attacking side attacks a 0 - 63 tile,
+	 * looking outward from the tile with each piece's attack set. This answers
+	 * check and castling questions without generating the attacker's moves.
+	 */
+	public boolean isAttacked(final int tile, final Side attacker) {
+		final long queens = getBitboard(attacker, PieceType.QUEEN);
+		return (BitBoards.PAWN_ATTACKS[attacker.getOpponentSide().getEnum()][tile]
+				& getBitboard(attacker, PieceType.PAWN)) != 0
+				|| (BitBoards.KNIGHT_ATTACKS[tile] & getBitboard(attacker, PieceType.KNIGHT)) != 0
+				|| (BitBoards.KING_ATTACKS[tile] & getBitboard(attacker, PieceType.KING)) != 0
+				|| (MagicBitboards.bishopAttacks(tile, this.occupancy)
+						& (getBitboard(attacker, PieceType.BISHOP) | queens)) != 0
+				|| (MagicBitboards.rookAttacks(tile, this.occupancy)
+						& (getBitboard(attacker, PieceType.ROOK) | queens)) != 0;
+	}
+
 	/*
 	 * Accessors for the piecelists.
 	 * 
@@ -192,6 +230,30 @@ public class Board {
 		return this.enPassantPawn;
 	}
 
+	/*
+	 * Castling rights still held by both sides, as a combination of the
+	 * BoardUtils.WHITE_KINGSIDE ... BLACK_QUEENSIDE bits. A right is lost once
+	 * the king or that rook moves or the rook is captured; it says nothing about
+	 * whether castling is possible right now.
+	 */
+
+	public int getCastlingRights() {
+		return this.castlingRights;
+	}
+
+	public boolean hasCastlingRight(final int right) {
+		return (this.castlingRights & right) != 0;
+	}
+
+	/*
+	 * Half-moves played since the start of the game: 0 in the initial
+	 * position, and one more after every move, however the board was set up.
+	 */
+
+	public int getPlyCount() {
+		return this.plyCount;
+	}
+
 	/*
 	 * Creates game board given a FEN position.
 	 */
@@ -205,6 +267,19 @@ public class Board {
 		return ImmutableList.copyOf(tiles);
 	}
 	
+	/*
+	 * Creates the twelve piece bitboards from the builder's piece map.
+	 */
+
+	private static long[] createPieceBitboards(final Builder builder) {
+		final long[] bitboards = new long[12];
+		for (final Piece piece : builder.boardConfig.values()) {
+			bitboards[BitBoards.pieceIndex(piece.getSide().getEnum(), piece.getType().getEnum())] |= BitBoards
+					.squareBit(piece.getPosition());
+		}
+		return bitboards;
+	}
+
 	public void setInitialHashValue() {
 		this.currentHash = ZobristHash.getZobristHash(this);
 	}
@@ -293,7 +368,25 @@ public class Board {
 			}
 		}
 
-		builder.setSide(all[1].equals("w") ? Side.WHITE : Side.BLACK); 
+		final Side sideToMove = all[1].equals("w") ? Side.WHITE : Side.BLACK;
+		builder.setSide(sideToMove);
+		if (all.length > 2) {
+			builder.setCastlingRights(BoardUtils.parseCastlingRights(all[2]));
+		}
+		if (all.length > 5) {
+			final int fullmoves = Integer.parseInt(all[5]);
+			builder.setPlyCount(2 * (fullmoves - 1) + (sideToMove.isBlack() ? 1 : 0));
+		}
+		if (all.length > 3 && !all[3].equals("-")) {
+			// the pawn that just jumped stands one rank past the en passant square
+			final Side jumped = sideToMove.getOpponentSide();
+			final int pawnTile = BoardUtils.mailbox[BoardUtils.getAt(all[3])]
+					+ BoardUtils.TILES_PER_ROW * jumped.getDirection();
+			final Piece pawn = builder.boardConfig.get(pawnTile);
+			if (pawn instanceof Pawn && pawn.getSide() == jumped) {
+				builder.setEnPassantPawn((Pawn) pawn);
+			}
+		}
 		return builder.build();
 	}
 
@@ -307,7 +400,10 @@ public class Board {
 		Map<Integer, Piece> boardConfig; // Map<coordinate (0 - 64), piece>
 		Side sideToMove;
 		Pawn enPassantPawn;
+		int castlingRights;
+		int plyCount;
 		long hash;
+		boolean hashSet;
 
 		/*
 		 * CONSTRUCTOR Initializes an empty HashMap.
@@ -336,8 +432,19 @@ public class Board {
 			return this;
 		}
 		
+		public Builder setCastlingRights(final int castlingRights) {
+			this.castlingRights = castlingRights;
+			return this;
+		}
+
+		public Builder setPlyCount(final int plyCount) {
+			this.plyCount = plyCount;
+			return this;
+		}
+
 		public Builder setHashValue(final long hash) {
 			this.hash = hash;
+			this.hashSet = true;
 			return this;
 		}
 
@@ -18,6 +18,12 @@ public class BoardUtils {
 	public static final int BLACK_PAWN_RANK = 1;
 	public static final int SPECIAL_RANK_OFFSET = 2; // for algebraic notation
 														// calculation
+	// castling right bits, in FEN order KQkq
+	public static final int WHITE_KINGSIDE = 1;
+	public static final int WHITE_QUEENSIDE = 2;
+	public static final int BLACK_KINGSIDE = 4;
+	public static final int BLACK_QUEENSIDE = 8;
+	public static final int ALL_CASTLING_RIGHTS = 15;
 	public static final int[] mailbox = { 
 			-1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
 			-1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
@@ -55,6 +61,10 @@ public class BoardUtils {
 			"a1", "b1", "c1", "d1", "e1", "f1", "g1", "h1", };
 	public final static Map<String, Integer> ALGEBRAIC_TO_MOVE_COORDINATE = initializeAlgebraicToMove();
 
+	// castling rights kept when a piece moves from or to a 0 - 63 tile:
+	// touching a king or rook home square clears the matching rights
+	private static final int[] CASTLING_RIGHTS_MASK = initializeCastlingRightsMask();
+
 	private BoardUtils() {
 		throw new RuntimeException("You cannot instantiate this class.");
 	}
@@ -67,6 +77,45 @@ public class BoardUtils {
 		return ImmutableMap.copyOf(map);
 	}
 
+	private static int[] initializeCastlingRightsMask() {
+		final int[] mask = new int[NUM_TILES];
+		Arrays.fill(mask, ALL_CASTLING_RIGHTS);
+		mask[0] &= ~BLACK_QUEENSIDE; // a8
+		mask[4] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE); // e8
+		mask[7] &= ~BLACK_KINGSIDE; // h8
+		mask[56] &= ~WHITE_QUEENSIDE; // a1
+		mask[60] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE); // e1
+		mask[63] &= ~WHITE_KINGSIDE; // h1
+		return mask;
+	}
+
+	/*
+	 * Returns the castling rights left after a piece moves between two 0 - 63
+	 * tiles.
+	 */
+	public static int updateCastlingRights(final int castlingRights, final int start, final int destination) {
+		return castlingRights & CASTLING_RIGHTS_MASK[start] & CASTLING_RIGHTS_MASK[destination];
+	}
+
+	/*
+	 * Parses the castling field of a FEN string ("KQkq", "Kq", "-", ...).
+	 */
+	public static int parseCastlingRights(final String field) {
+		int rights = 0;
+		for (final char c : field.toCharArray()) {
+			if (c == 'K') {
+				rights |= WHITE_KINGSIDE;
+			} else if (c == 'Q') {
+				rights |= WHITE_QUEENSIDE;
+			} else if (c == 'k') {
+				rights |= BLACK_KINGSIDE;
+			} else if (c == 'q') {
+				rights |= BLACK_QUEENSIDE;
+			}
+		}
+		return rights;
+	}
+
 	public static boolean inBoard(final int coordinate) {
 		// int coordinate is passed in as board64 index
 		if (coordinate < mailbox.length) { // if in bounds of mailbox
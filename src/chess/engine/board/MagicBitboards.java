@@ -0,0 +1,176 @@
+package chess.engine.board;
+
+/*
+ * Magic bitboard attack tables for the sliding pieces. For every tile we keep a mask of the tiles
+ * whose occupancy can block the slider (the edge tiles never block anything, so they are left out),
+ * a magic multiplier and a table of attack sets. Multiplying the masked occupancy by the magic and
+ * shifting leaves a perfect index into the table, so a lookup costs one AND, one multiply and one
+ * shift no matter how crowded the board is.
+ *
+ * The magics are searched for once when the class is loaded. The search is seeded with a constant,
+ * so every run builds the same tables.
+ */
+
+public final class MagicBitboards {
+
+	// {rank delta, file delta} of each ray; rank 0 is the 8th rank
+	private static final int[][] ROOK_DIRECTIONS = { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 } };
+	private static final int[][] BISHOP_DIRECTIONS = { { -1, -1 }, { -1, 1 }, { 1, -1 }, { 1, 1 } };
+
+	private static final long SEED = 0x2545F4914F6CDD1DL;
+
+	private static final long[] ROOK_MASKS = new long[BoardUtils.NUM_TILES];
+	private static final long[] ROOK_MAGICS = new long[BoardUtils.NUM_TILES];
+	private static final int[] ROOK_SHIFTS = new int[BoardUtils.NUM_TILES];
+	private static final long[][] ROOK_ATTACKS = new long[BoardUtils.NUM_TILES][];
+
+	private static final long[] BISHOP_MASKS = new long[BoardUtils.NUM_TILES];
+	private static final long[] BISHOP_MAGICS = new long[BoardUtils.NUM_TILES];
+	private static final int[] BISHOP_SHIFTS = new int[BoardUtils.NUM_TILES];
+	private static final long[][] BISHOP_ATTACKS = new long[BoardUtils.NUM_TILES][];
+
+	private static long randomState = SEED;
+
+	static {
+		for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+			initializeTile(tile, ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_ATTACKS);
+			initializeTile(tile, BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_ATTACKS);
+		}
+	}
+
+	private MagicBitboards() {
+		throw new RuntimeException("You cannot instantiate this class.");
+	}
+
+	/*
+	 * Attack set of a rook, bishop or queen on a 0 - 63 tile given the
+	 * occupancy of the whole board. The set includes the first blocker in each
+	 * direction, whatever its colour; callers mask out their own pieces.
+	 */
+
+	public static long rookAttacks(final int tile, final long occupancy) {
+		return ROOK_ATTACKS[tile][(int) (((occupancy & ROOK_MASKS[tile]) * ROOK_MAGICS[tile]) >>> ROOK_SHIFTS[tile])];
+	}
+
+	public static long bishopAttacks(final int tile, final long occupancy) {
+		return BISHOP_ATTACKS[tile][(int) (((occupancy & BISHOP_MASKS[tile]) * BISHOP_MAGICS[tile])
+				>>> BISHOP_SHIFTS[tile])];
+	}
+
+	public static long queenAttacks(final int tile, final long occupancy) {
+		return rookAttacks(tile, occupancy) | bishopAttacks(tile, occupancy);
+	}
+
+	/*
+	 * Computes the blocker mask of one tile, enumerates every occupancy of
+	 * that mask and searches for a magic that maps all of them to a table slot
+	 * holding the right attack set.
+	 */
+
+	private static void initializeTile(final int tile, final int[][] directions, final long[] masks,
+			final long[] magics, final int[] shifts, final long[][] attacks) {
+		final long mask = blockerMask(tile, directions);
+		final int bits = BitBoards.popCount(mask);
+		final int size = 1 << bits;
+
+		// carry-rippler enumeration of all subsets of the mask
+		final long[] occupancies = new long[size];
+		final long[] reference = new long[size];
+		long subset = 0;
+		for (int i = 0; i < size; i++) {
+			occupancies[i] = subset;
+			reference[i] = slowAttacks(tile, subset, directions);
+			subset = (subset - mask) & mask;
+		}
+
+		final long[] table = new long[size];
+		final int[] epoch = new int[size]; // which attempt last wrote each slot
+		final int shift = 64 - bits;
+		for (int attempt = 1;; attempt++) {
+			final long magic = sparseRandom();
+			// magics that spread the mask too little into the top byte rarely work
+			if (BitBoards.popCount((mask * magic) & 0xFF00000000000000L) < 6) {
+				continue;
+			}
+			boolean collision = false;
+			for (int i = 0; i < size && !collision; i++) {
+				final int index = (int) ((occupancies[i] * magic) >>> shift);
+				if (epoch[index] != attempt) {
+					epoch[index] = attempt;
+					table[index] = reference[i];
+				} else if (table[index] != reference[i]) {
+					collision = true;
+				}
+			}
+			if (!collision) {
+				masks[tile] = mask;
+				magics[tile] = magic;
+				shifts[tile] = shift;
+				attacks[tile] = table;
+				return;
+			}
+		}
+	}
+
+	/*
+	 * Tiles that can block a slider on the given tile: every tile along its
+	 * rays except the last one before the edge.
+	 */
+
+	private static long blockerMask(final int tile, final int[][] directions) {
+		long mask = 0;
+		for (final int[] direction : directions) {
+			int rank = tile / BoardUtils.TILES_PER_ROW + direction[0];
+			int file = tile % BoardUtils.TILES_PER_ROW + direction[1];
+			while (onBoard(rank + direction[0], file + direction[1])) {
+				mask |= BitBoards.squareBit(rank * BoardUtils.TILES_PER_ROW + file);
+				rank += direction[0];
+				file += direction[1];
+			}
+		}
+		return mask;
+	}
+
+	/*
+	 * Walks each ray one tile at a time, stopping at the first occupied tile.
+	 * Only used to fill the tables.
+	 */
+
+	private static long slowAttacks(final int tile, final long occupancy, final int[][] directions) {
+		long attacks = 0;
+		for (final int[] direction : directions) {
+			int rank = tile / BoardUtils.TILES_PER_ROW + direction[0];
+			int file = tile % BoardUtils.TILES_PER_ROW + direction[1];
+			while (onBoard(rank, file)) {
+				final long bit = BitBoards.squareBit(rank * BoardUtils.TILES_PER_ROW + file);
+				attacks |= bit;
+				if ((occupancy & bit) != 0) {
+					break;
+				}
+				rank += direction[0];
+				file += direction[1];
+			}
+		}
+		return attacks;
+	}
+
+	private static boolean onBoard(final int rank, final int file) {
+		return rank >= 0 && rank < BoardUtils.TILES_PER_ROW && file >= 0 && file < BoardUtils.TILES_PER_ROW;
+	}
+
+	/*
+	 * xorshift64* generator; ANDing three outputs gives the sparse candidates
+	 * that make good magics.
+	 */
+
+	private static long random() {
+		randomState ^= randomState >>> 12;
+		randomState ^= randomState << 25;
+		randomState ^= randomState >>> 27;
+		return randomState * 0x2545F4914F6CDD1DL;
+	}
+
+	private static long sparseRandom() {
+		return random() & random() & random();
+	}
+}
@@ -16,7 +16,6 @@ import chess.engine.player.BlackPlayer;
 import chess.engine.player.MoveTransition;
 import chess.engine.player.Player;
 import chess.engine.player.WhitePlayer;
-import chess.gui.Table;
 
 /*
  * This class Move stores the information of a move on the chessboard, by keeping track of the current board state,
@@ -132,6 +131,10 @@ public abstract class Move {
 		return this.movedPiece;
 	}
 
+	public Board getBoard() {
+		return this.board;
+	}
+
 	/*
 	 * Base class move-type booleans and accessors.
 	 */
@@ -194,7 +197,9 @@ public abstract class Move {
 		// the captured piece is here overwritten.
 		builder.setPiece(this.movedPiece.pieceFromMove(this));
 		builder.setHashValue(ZobristHash.updateZobristHash(board.getHash(), this));
+		builder.setCastlingRights(castlingRightsAfterMove());
 		builder.setSide(this.board.currentPlayer().getOpponent().getSide());
+		builder.setPlyCount(this.board.getPlyCount() + 1);
 		return builder.build();
 	}
 
@@ -202,6 +207,16 @@ public abstract class Move {
 		return board;
 	}
 
+	/*
+	 * Castling rights of the board after this move: moving a king or rook off
+	 * its home tile, or capturing a rook on its home tile, clears the right.
+	 */
+
+	protected int castlingRightsAfterMove() {
+		return BoardUtils.updateCastlingRights(this.board.getCastlingRights(), this.movedPiece.getPosition(),
+				BoardUtils.mailbox[this.destination]);
+	}
+
 	/*
 	 * Concrete subclass of Move. A QuietMove is any move that does not have a
 	 * capture.
@@ -390,7 +405,9 @@ public abstract class Move {
 
 			builder.setPiece(this.movedPiece.pieceFromMove(this));
 			builder.setHashValue(ZobristHash.updateZobristHash(this.board.getHash(), this));
+			builder.setCastlingRights(castlingRightsAfterMove());
 			builder.setSide(this.board.currentPlayer().getOpponent().getSide());
+			builder.setPlyCount(this.board.getPlyCount() + 1);
 			return builder.build();
 		}
 
@@ -443,9 +460,11 @@ public abstract class Move {
 			for (final Piece piece : board.currentPlayer().getOpponent().getActivePieces()) {
 				builder.setPiece(piece);
 			}
-			builder.setPiece(this.promoted.getPromotionPiece().pieceFromMove(this));
+			builder.setPiece(this.promoteTo.pieceFromMove(this));
 			builder.setHashValue(ZobristHash.updateZobristHash(this.board.getHash(), this));
+			builder.setCastlingRights(board.getCastlingRights());
 			builder.setSide(board.currentPlayer().getSide());
+			builder.setPlyCount(this.board.getPlyCount() + 1);
 			return builder.build();
 		}
 
@@ -505,7 +524,9 @@ public abstract class Move {
 			builder.setEnPassantPawn(moved);
 			builder.setPiece(moved);
 			builder.setHashValue(ZobristHash.updateZobristHash(this.board.getHash(), this));
+			builder.setCastlingRights(castlingRightsAfterMove());
 			builder.setSide(this.board.currentPlayer().getOpponent().getSide());
+			builder.setPlyCount(this.board.getPlyCount() + 1);
 			return builder.build();
 		}
 	}
@@ -543,6 +564,10 @@ public abstract class Move {
 			return this.castleRook;
 		}
 
+		public int getCastleRookDestination() {
+			return this.castleRookDestination;
+		}
+
 		/*
 		 * Overrides — these moves are castling moves.
 		 */
@@ -567,11 +592,14 @@ public abstract class Move {
 			for (final Piece piece : this.board.currentPlayer().getOpponent().getActivePieces()) {
 				builder.setPiece(piece);
 			}
-			builder.setPiece(this.movedPiece.pieceFromMove(this));
+			builder.setPiece(new King(BoardUtils.mailbox[this.destination], this.movedPiece.getSide(), true, true));
 			// recall builder takes in a 0 - 64 coordinate, so we must convert
 			// it here
 			builder.setPiece(new Rook(BoardUtils.mailbox[this.castleRookDestination], this.castleRook.getSide(), true));
+			builder.setHashValue(ZobristHash.updateZobristHash(this.board.getHash(), this));
+			builder.setCastlingRights(castlingRightsAfterMove());
 			builder.setSide(this.board.currentPlayer().getOpponent().getSide());
+			builder.setPlyCount(this.board.getPlyCount() + 1);
 			return builder.build();
 		}
 
@@ -630,8 +658,10 @@ public abstract class Move {
 	}
 
 	/*
-	 * This concrete subclass is the default empty move, and stores no board, no
-	 * piece, and a destination of -1.
+	 * This concrete subclass is the empty move: it moves no piece and has a
+	 * destination of -1. The NULL_MOVE constant stores no board either, and is
+	 * only a default; a NullMove made on a board (MoveFactory.createNullMove)
+	 * passes the turn.
 	 */
 
 	public static final class NullMove extends Move {
@@ -639,39 +669,68 @@ public abstract class Move {
 			super(null, null, -1);
 		}
 
+		public NullMove(final Board board) {
+			super(board, null, -1);
+		}
+
 		/*
-		 * Used only for the null-move heuristic — this is only called in the AI thinking algorithm.
+		 * Used only for the null-move heuristic: the same pieces and castling
+		 * rights with the other side to move, and no en passant capture.
 		 */
 
 		@Override
 		public Board execute() {
-			throw new RuntimeException("Can't execute null move");
-			//return new Board(this.board, this.board.currentPlayer().getOpponent().getSide());
+			if (this.board == null) {
+				throw new RuntimeException("Can't execute null move without a board");
+			}
+			final Builder builder = new Builder();
+			for (final Piece piece : this.board.getWhitePieces()) {
+				builder.setPiece(piece);
+			}
+			for (final Piece piece : this.board.getBlackPieces()) {
+				builder.setPiece(piece);
+			}
+			long hash = this.board.getHash() ^ ZobristHash.blackToMoveKey();
+			final Pawn enPassantPawn = this.board.getEnPassantPawn();
+			if (enPassantPawn != null) {
+				hash ^= ZobristHash.enPassantKey(enPassantPawn.getPosition() % BoardUtils.TILES_PER_ROW);
+			}
+			builder.setHashValue(hash);
+			builder.setCastlingRights(this.board.getCastlingRights());
+			builder.setSide(this.board.currentPlayer().getOpponent().getSide());
+			builder.setPlyCount(this.board.getPlyCount() + 1);
+			return builder.build();
 		}
 
 		/*
-		 * Field accessors
+		 * All null moves are equal, so they share one hash code; the inherited
+		 * one would dereference the missing moved piece.
 		 */
 
 		@Override
-		public int getStart() {
-			return -1;
+		public int hashCode() {
+			return 1;
 		}
 
 		@Override
-		public int getDestination() {
-			return -1;
+		public boolean equals(final Object obj) {
+			return obj instanceof NullMove;
 		}
 
 		/*
-		 * Hashcode implementation.
+		 * Field accessors
 		 */
 
 		@Override
-		public int hashCode() {
-			return 1;
+		public int getStart() {
+			return -1;
 		}
-		
+
+		@Override
+		public int getDestination() {
+			return -1;
+		}
+
 		@Override
 		public String toString() {
 			return "NULL_MOVE";
@@ -710,6 +769,10 @@ public abstract class Move {
 		public static Move getNullMove() {
 			return NULL_MOVE;
 		}
+
+		public static Move createNullMove(final Board board) {
+			return new NullMove(board);
+		}
 		
 	}
 
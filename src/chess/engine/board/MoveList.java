@@ -0,0 +1,111 @@
+package chess.engine.board;
+
+/*
+ * A reusable list of packed moves (see PackedMove) with an int score per move for move ordering. The
+ * arrays are allocated once, so the search keeps one MoveList per ply and clears it instead of building
+ * a new collection at every node.
+ */
+
+public final class MoveList {
+
+	public static final int MAX_MOVES = 256; // no legal position has more than 218 moves
+
+	private final int[] moves = new int[MAX_MOVES];
+	private final int[] scores = new int[MAX_MOVES];
+	private int size;
+
+	/*
+	 * One list per ply, for searches that recurse up to the given depth.
+	 */
+	public static MoveList[] createStack(final int plies) {
+		final MoveList[] stack = new MoveList[plies];
+		for (int ply = 0; ply < plies; ply++) {
+			stack[ply] = new MoveList();
+		}
+		return stack;
+	}
+
+	public void clear() {
+		this.size = 0;
+	}
+
+	public void add(final int move) {
+		this.moves[this.size++] = move;
+	}
+
+	public int get(final int index) {
+		return this.moves[index];
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	public boolean contains(final int move) {
+		for (int i = 0; i < this.size; i++) {
+			if (this.moves[i] == move) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public int getScore(final int index) {
+		return this.scores[index];
+	}
+
+	public void setScore(final int index, final int score) {
+		this.scores[index] = score;
+	}
+
+	/*
+	 * Moves the move at index to the end of the list and drops it; order is
+	 * not kept.
+	 */
+	public void remove(final int index) {
+		this.size--;
+		this.moves[index] = this.moves[this.size];
+		this.scores[index] = this.scores[this.size];
+	}
+
+	/*
+	 * Swaps the highest scored move from index on to index and returns it, so
+	 * calling this for index 0, 1, 2... hands out the moves best first without
+	 * sorting the ones a cutoff never gets to.
+	 */
+	public int pickBest(final int index) {
+		int best = index;
+		for (int i = index + 1; i < this.size; i++) {
+			if (this.scores[i] > this.scores[best]) {
+				best = i;
+			}
+		}
+		swap(index, best);
+		return this.moves[index];
+	}
+
+	public void swap(final int i, final int j) {
+		final int move = this.moves[i];
+		this.moves[i] = this.moves[j];
+		this.moves[j] = move;
+		final int score = this.scores[i];
+		this.scores[i] = this.scores[j];
+		this.scores[j] = score;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; i < this.size; i++) {
+			if (i > 0) {
+				builder.append(", ");
+			}
+			builder.append(PackedMove.toString(this.moves[i]));
+		}
+		return builder.append("]").toString();
+	}
+}
@@ -0,0 +1,148 @@
+package chess.engine.board;
+
+import chess.engine.pieces.Piece;
+
+/*
+ * Moves packed into a single int, for the search. Unlike the Move classes, a packed move is not tied to
+ * a Board and costs no allocation, so move lists can be plain int arrays (see MoveList).
+ *
+ * Layout, from the lowest bit:
+ *   bits  0 -  5  start tile (0 - 63)
+ *   bits  6 - 11  destination tile (0 - 63)
+ *   bits 12 - 15  moved piece index (side * 6 + piece type, see BitBoards.pieceIndex)
+ *   bits 16 - 19  captured piece index, or SearchBoard.NO_PIECE
+ *   bits 20 - 21  flag: NORMAL, PAWN_JUMP, EN_PASSANT or CASTLING
+ *   bits 22 - 24  piece type a pawn promotes to, or 0 (pawns never promote to pawns)
+ *
+ * No real move goes from a tile to itself, so 0 is free to mean NONE.
+ */
+
+public final class PackedMove {
+
+	public static final int NONE = 0;
+
+	public static final int NORMAL = 0;
+	public static final int PAWN_JUMP = 1;
+	public static final int EN_PASSANT = 2;
+	public static final int CASTLING = 3;
+
+	private static final int TILE_MASK = 0x3F;
+	private static final int PIECE_MASK = 0xF;
+	private static final int FLAG_MASK = 0x3;
+	private static final int TYPE_MASK = 0x7;
+
+	private static final int DESTINATION_SHIFT = 6;
+	private static final int PIECE_SHIFT = 12;
+	private static final int CAPTURED_SHIFT = 16;
+	private static final int FLAG_SHIFT = 20;
+	private static final int PROMOTION_SHIFT = 22;
+
+	private PackedMove() {
+		throw new RuntimeException("You cannot instantiate this class.");
+	}
+
+	public static int create(final int start, final int destination, final int piece, final int captured,
+			final int flag, final int promotionType) {
+		return start | destination << DESTINATION_SHIFT | piece << PIECE_SHIFT | captured << CAPTURED_SHIFT
+				| flag << FLAG_SHIFT | promotionType << PROMOTION_SHIFT;
+	}
+
+	/*
+	 * Field accessors. Tiles are 0 - 63 coordinates, pieces are piece indexes.
+	 */
+
+	public static int getStart(final int move) {
+		return move & TILE_MASK;
+	}
+
+	public static int getDestination(final int move) {
+		return (move >>> DESTINATION_SHIFT) & TILE_MASK;
+	}
+
+	public static int getPiece(final int move) {
+		return (move >>> PIECE_SHIFT) & PIECE_MASK;
+	}
+
+	public static int getCaptured(final int move) {
+		return (move >>> CAPTURED_SHIFT) & PIECE_MASK;
+	}
+
+	public static int getFlag(final int move) {
+		return (move >>> FLAG_SHIFT) & FLAG_MASK;
+	}
+
+	public static int getPromotionType(final int move) {
+		return (move >>> PROMOTION_SHIFT) & TYPE_MASK;
+	}
+
+	public static boolean isCapture(final int move) {
+		return getCaptured(move) != SearchBoard.NO_PIECE;
+	}
+
+	public static boolean isPromotion(final int move) {
+		return getPromotionType(move) != 0;
+	}
+
+	public static boolean isCastling(final int move) {
+		return getFlag(move) == CASTLING;
+	}
+
+	/*
+	 * Adapters for the Move classes, which the GUI and the MoveLog still use.
+	 */
+
+	/*
+	 * Packs a Move generated on a Board.
+	 */
+	public static int fromMove(final Move move) {
+		final Piece moved = move.getMovedPiece();
+		final Piece captured = move.getAttackedPiece();
+		int flag = NORMAL;
+		if (move instanceof Move.PawnJump) {
+			flag = PAWN_JUMP;
+		} else if (move instanceof Move.EnPassant) {
+			flag = EN_PASSANT;
+		} else if (move.isCastlingMove()) {
+			flag = CASTLING;
+		}
+		final int promotionType = move instanceof Move.PawnPromotion
+				? ((Move.PawnPromotion) move).getPromotionPiece().getType().getEnum() : 0;
+		return create(BoardUtils.mailbox[move.getStart()], BoardUtils.mailbox[move.getDestination()],
+				pieceIndex(moved), captured == null ? SearchBoard.NO_PIECE : pieceIndex(captured), flag,
+				promotionType);
+	}
+
+	/*
+	 * Finds the Move of the board's current player that matches a packed move,
+	 * or Move.NULL_MOVE if there is none.
+	 */
+	public static Move toMove(final Board board, final int move) {
+		final int start = BoardUtils.board64[getStart(move)];
+		final int destination = BoardUtils.board64[getDestination(move)];
+		for (final Move candidate : board.currentPlayer().getLegalMoves()) {
+			if (candidate.getStart() == start && candidate.getDestination() == destination) {
+				if (!(candidate instanceof Move.PawnPromotion) || ((Move.PawnPromotion) candidate)
+						.getPromotionPiece().getType().getEnum() == getPromotionType(move)) {
+					return candidate;
+				}
+			}
+		}
+		return Move.NULL_MOVE;
+	}
+
+	private static int pieceIndex(final Piece piece) {
+		return BitBoards.pieceIndex(piece.getSide().getEnum(), piece.getType().getEnum());
+	}
+
+	/*
+	 * Long algebraic notation ("e2e4", "e7e8q"), used when printing search
+	 * output.
+	 */
+	public static String toString(final int move) {
+		if (move == NONE) {
+			return "none";
+		}
+		final String text = BoardUtils.algebraic[getStart(move)] + BoardUtils.algebraic[getDestination(move)];
+		return isPromotion(move) ? text + "nbrq".charAt(getPromotionType(move) - 1) : text;
+	}
+}
@@ -0,0 +1,290 @@
+package chess.engine.board;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+
+/*
+ * Move generation test ("perft"): counts the leaf nodes of the legal move tree to a fixed depth, so the
+ * counts can be compared with the published ones for the reference positions below. Runs on
+ * SearchBoard's legal move generator, and doubles as a speed benchmark for it.
+ *
+ * Options:
+ * - bulk counting: at the last ply the size of the move list is counted instead of making every move
+ * - a perft cache: subtree counts keyed by Zobrist hash and depth, in a fixed-size table
+ * - threads: the root moves are split across a fork-join pool, each on its own SearchBoard
+ *
+ * Usage: Perft [-bulk] [-hash MB] [-threads N] (reference DEPTH | FEN DEPTH)
+ */
+
+public final class Perft {
+
+	/*
+	 * Standard perft positions with their published counts, from depth 1 up.
+	 */
+
+	public enum Position {
+		INITIAL("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+				20, 400, 8902, 197281, 4865609, 119060324),
+		KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+				48, 2039, 97862, 4085603, 193690690),
+		POSITION_3("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+				14, 191, 2812, 43238, 674624, 11030083),
+		POSITION_4("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+				6, 264, 9467, 422333, 15833292),
+		POSITION_5("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+				44, 1486, 62379, 2103487, 89941194),
+		POSITION_6("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+				46, 2079, 89890, 3894594, 164075551);
+
+		private final String fen;
+		private final long[] nodes;
+
+		Position(final String fen, final long... nodes) {
+			this.fen = fen;
+			this.nodes = nodes;
+		}
+
+		public String getFEN() {
+			return this.fen;
+		}
+
+		public int maxDepth() {
+			return this.nodes.length;
+		}
+
+		public long expectedNodes(final int depth) {
+			return this.nodes[depth - 1];
+		}
+	}
+
+	private static final int BYTES_PER_ENTRY = 16;
+	private static final int DEPTH_SHIFT = 56;
+	private static final long NODES_MASK = (1L << DEPTH_SHIFT) - 1;
+
+	private final boolean bulk;
+	private final int threads;
+
+	// perft cache: key ^ data next to data, so an entry torn by two threads writing at once fails to verify
+	private final long[] cacheKeys;
+	private final long[] cacheData; // depth in the top byte, node count below it
+	private final int cacheMask;
+
+	/*
+	 * CONSTRUCTOR: cacheSize in MB, 0 for no cache. The cache is rounded down
+	 * to a power of two entries.
+	 */
+
+	public Perft(final boolean bulk, final int cacheSize, final int threads) {
+		if (threads < 1) {
+			throw new RuntimeException("Perft needs at least one thread!");
+		}
+		this.bulk = bulk;
+		this.threads = threads;
+		final long entries = (long) cacheSize * 1024 * 1024 / BYTES_PER_ENTRY;
+		final int size = entries == 0 ? 0 : Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+		this.cacheKeys = new long[size];
+		this.cacheData = new long[size];
+		this.cacheMask = size - 1;
+	}
+
+	/*
+	 * Counts the leaf nodes below the position to the given depth.
+	 */
+	public long perft(final Board board, final int depth) {
+		long nodes = 0;
+		for (final long count : divide(board, depth)) {
+			nodes += count;
+		}
+		return nodes;
+	}
+
+	/*
+	 * Counts the leaf nodes below each root move, in the order of
+	 * SearchBoard.generateLegalMoves(). Root moves are searched in parallel
+	 * when this Perft has more than one thread.
+	 */
+	public long[] divide(final Board board, final int depth) {
+		if (depth < 1) {
+			throw new RuntimeException("Perft depth must be at least 1!");
+		}
+		final MoveList rootMoves = rootMoves(board);
+		final long[] counts = new long[rootMoves.size()];
+		if (this.threads == 1) {
+			final SearchBoard searchBoard = new SearchBoard(board);
+			final MoveList[] lists = MoveList.createStack(depth);
+			for (int i = 0; i < rootMoves.size(); i++) {
+				counts[i] = countMove(searchBoard, rootMoves.get(i), depth, lists);
+			}
+			return counts;
+		}
+		final List<RootTask> tasks = new ArrayList<>();
+		for (int i = 0; i < rootMoves.size(); i++) {
+			tasks.add(new RootTask(board, rootMoves.get(i), depth));
+		}
+		final ForkJoinPool pool = new ForkJoinPool(this.threads);
+		try {
+			pool.invoke(new RecursiveTask<Void>() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected Void compute() {
+					invokeAll(tasks);
+					return null;
+				}
+			});
+		} finally {
+			pool.shutdown();
+		}
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = tasks.get(i).join();
+		}
+		return counts;
+	}
+
+	private static MoveList rootMoves(final Board board) {
+		final MoveList moves = new MoveList();
+		new SearchBoard(board).generateLegalMoves(moves);
+		return moves;
+	}
+
+	/*
+	 * One root move with its own SearchBoard and move lists.
+	 */
+	private final class RootTask extends RecursiveTask<Long> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Board board;
+		private final int move;
+		private final int depth;
+
+		RootTask(final Board board, final int move, final int depth) {
+			this.board = board;
+			this.move = move;
+			this.depth = depth;
+		}
+
+		@Override
+		protected Long compute() {
+			return countMove(new SearchBoard(this.board), this.move, this.depth, MoveList.createStack(this.depth));
+		}
+	}
+
+	private long countMove(final SearchBoard board, final int move, final int depth, final MoveList[] lists) {
+		board.make(move);
+		final long nodes = count(board, depth - 1, lists);
+		board.unmake(move);
+		return nodes;
+	}
+
+	private long count(final SearchBoard board, final int depth, final MoveList[] lists) {
+		if (depth == 0) {
+			return 1;
+		}
+		final long hash = board.getHash();
+		final int index = (int) hash & this.cacheMask;
+		if (this.cacheKeys.length > 0) {
+			final long data = this.cacheData[index];
+			if ((this.cacheKeys[index] ^ data) == hash && (int) (data >>> DEPTH_SHIFT) == depth) {
+				return data & NODES_MASK;
+			}
+		}
+		final MoveList moves = lists[depth - 1];
+		moves.clear();
+		board.generateLegalMoves(moves);
+		long nodes;
+		if (depth == 1 && this.bulk) {
+			nodes = moves.size();
+		} else {
+			nodes = 0;
+			for (int i = 0; i < moves.size(); i++) {
+				board.make(moves.get(i));
+				nodes += count(board, depth - 1, lists);
+				board.unmake(moves.get(i));
+			}
+		}
+		if (this.cacheKeys.length > 0) {
+			final long data = (long) depth << DEPTH_SHIFT | nodes;
+			this.cacheKeys[index] = hash ^ data;
+			this.cacheData[index] = data;
+		}
+		return nodes;
+	}
+
+	/*
+	 * Prints the divide counts of every root move, then the total and the
+	 * speed.
+	 */
+	public long printDivide(final Board board, final int depth) {
+		final MoveList rootMoves = rootMoves(board);
+		final long start = System.nanoTime();
+		final long[] counts = divide(board, depth);
+		final long elapsed = Math.max(System.nanoTime() - start, 1);
+		long nodes = 0;
+		for (int i = 0; i < counts.length; i++) {
+			System.out.println(PackedMove.toString(rootMoves.get(i)) + ": " + counts[i]);
+			nodes += counts[i];
+		}
+		System.out.println("Nodes: " + nodes);
+		System.out.println("Time: " + elapsed / 1000000 + "ms");
+		System.out.println("Nodes per second: " + nodes * 1000000000L / elapsed);
+		return nodes;
+	}
+
+	/*
+	 * Runs every reference position up to the given depth (or its deepest
+	 * published count) and returns whether all counts matched.
+	 */
+	public boolean runReference(final int depth) {
+		boolean passed = true;
+		for (final Position position : Position.values()) {
+			final int positionDepth = Math.min(depth, position.maxDepth());
+			final long start = System.nanoTime();
+			final long nodes = perft(Board.parseFEN(position.getFEN()), positionDepth);
+			final long elapsed = Math.max(System.nanoTime() - start, 1);
+			final boolean matched = nodes == position.expectedNodes(positionDepth);
+			passed &= matched;
+			System.out.println(position + " depth " + positionDepth + ": " + nodes + (matched ? " ok" : " FAILED, expected "
+					+ position.expectedNodes(positionDepth)) + " (" + nodes * 1000000000L / elapsed + " nps)");
+		}
+		return passed;
+	}
+
+	public static void main(final String[] args) {
+		boolean bulk = false;
+		int cacheSize = 0;
+		int threads = 1;
+		int arg = 0;
+		while (arg < args.length && args[arg].startsWith("-")) {
+			switch (args[arg++]) {
+			case "-bulk":
+				bulk = true;
+				break;
+			case "-hash":
+				cacheSize = Integer.parseInt(args[arg++]);
+				break;
+			case "-threads":
+				threads = Integer.parseInt(args[arg++]);
+				break;
+			default:
+				throw new RuntimeException("Unknown option " + args[arg - 1]);
+			}
+		}
+		if (args.length - arg != 2) {
+			System.out.println("Usage: Perft [-bulk] [-hash MB] [-threads N] (reference DEPTH | FEN DEPTH)");
+			return;
+		}
+		final Perft perft = new Perft(bulk, cacheSize, threads);
+		final int depth = Integer.parseInt(args[arg + 1]);
+		if (args[arg].equals("reference")) {
+			if (!perft.runReference(depth)) {
+				System.exit(1);
+			}
+		} else {
+			perft.printDivide(Board.parseFEN(args[arg]), depth);
+		}
+	}
+}
@@ -0,0 +1,228 @@
+package chess.engine.board;
+
+import chess.engine.pieces.Piece.PieceType;
+
+/*
+ * Piece values, piece-square tables and game phase of the evaluation. The tables are from white's
+ * point of view, tile 0 being a8; a black piece reads the tile mirrored across the middle of the board.
+ *
+ * Every piece type has a midgame and an endgame table. The game phase runs from MAX_PHASE with all
+ * minor pieces, rooks and queens on the board down to 0 with none of them, and taper() blends a
+ * midgame and an endgame score by it, so the evaluation slides between the two instead of switching.
+ *
+ * SearchBoard keeps the sums of materialScore(), midgameScore(), endgameScore() and phaseWeight() over
+ * all its pieces up to date as pieces are put and removed, so the evaluation reads them in constant
+ * time; captures and promotions change the phase through the pieces they remove and put.
+ */
+
+public final class PieceSquareTables {
+
+	//reverse for black: same file, reversed rank order
+	private static final int[] PAWN_POSITION_SCORES =
+		  { 0,  0,  0,  0,  0,  0,  0,  0,
+			50, 50, 50, 50, 50, 50, 50, 50,
+			10, 10, 20, 30, 30, 20, 10, 10,
+			5,  5, 10, 25, 25, 10,  5,  5,
+			0,  0,  0, 20, 20,  0,  0,  0,
+			5, -5,-10,  0,  0,-10, -5,  5,
+			5, 10, 10,-20,-20, 10, 10,  5,
+			0,  0,  0,  0,  0,  0,  0,  0 };
+
+	// passed pawns decide endgames: the closer to promotion the better, on any file
+	private static final int[] PAWN_ENDGAME_SCORES =
+		  { 0,  0,  0,  0,  0,  0,  0,  0,
+			80, 80, 80, 80, 80, 80, 80, 80,
+			50, 50, 50, 50, 50, 50, 50, 50,
+			30, 30, 30, 30, 30, 30, 30, 30,
+			15, 15, 15, 15, 15, 15, 15, 15,
+			5,  5,  5,  5,  5,  5,  5,  5,
+			0,  0,  0,  0,  0,  0,  0,  0,
+			0,  0,  0,  0,  0,  0,  0,  0 };
+
+	private static final int[] KNIGHT_POSITION_SCORES =
+		  { -50,-40,-30,-30,-30,-30,-40,-50,
+			-40,-20,  0,  0,  0,  0,-20,-40,
+			-30,  0, 10, 15, 15, 10,  0,-30,
+			-30,  5, 15, 20, 20, 15,  5,-30,
+			-30,  0, 15, 20, 20, 15,  0,-30,
+			-30,  5, 10, 15, 15, 10,  5,-30,
+			-40,-20,  0,  5,  5,  0,-20,-40,
+			-50,-40,-30,-30,-30,-30,-40,-50};
+
+	// with no pawn chains to hop around, a knight only wants to be off the rim
+	private static final int[] KNIGHT_ENDGAME_SCORES =
+		  { -40,-30,-20,-20,-20,-20,-30,-40,
+			-30,-10,  0,  5,  5,  0,-10,-30,
+			-20,  0, 10, 15, 15, 10,  0,-20,
+			-20,  5, 15, 20, 20, 15,  5,-20,
+			-20,  5, 15, 20, 20, 15,  5,-20,
+			-20,  0, 10, 15, 15, 10,  0,-20,
+			-30,-10,  0,  5,  5,  0,-10,-30,
+			-40,-30,-20,-20,-20,-20,-30,-40};
+
+	private static final int[] BISHOP_POSITION_SCORES =
+		  { -20,-10,-10,-10,-10,-10,-10,-20,
+		    -10,  0,  0,  0,  0,  0,  0,-10,
+		    -10,  0,  5, 10, 10,  5,  0,-10,
+		    -10,  5,  5, 10, 10,  5,  5,-10,
+		    -10,  0, 10, 10, 10, 10,  0,-10,
+		    -10, 10, 10, 10, 10, 10, 10,-10,
+		    -10,  5,  0,  0,  0,  0,  5,-10,
+		    -20,-10,-10,-10,-10,-10,-10,-20};
+
+	// no development to reward and no king to shelter: long diagonals through the center
+	private static final int[] BISHOP_ENDGAME_SCORES =
+		  { -15,-10, -5, -5, -5, -5,-10,-15,
+		    -10,  0,  0,  0,  0,  0,  0,-10,
+		     -5,  0,  5,  5,  5,  5,  0, -5,
+		     -5,  0,  5, 10, 10,  5,  0, -5,
+		     -5,  0,  5, 10, 10,  5,  0, -5,
+		     -5,  0,  5,  5,  5,  5,  0, -5,
+		    -10,  0,  0,  0,  0,  0,  0,-10,
+		    -15,-10, -5, -5, -5, -5,-10,-15};
+
+	private static final int[] ROOK_POSITION_SCORES =
+		 { 0,  0,  0,  0,  0,  0,  0,  0,
+		   5, 10, 10, 10, 10, 10, 10,  5,
+		  -5,  0,  0,  0,  0,  0,  0, -5,
+		  -5,  0,  0,  0,  0,  0,  0, -5,
+		  -5,  0,  0,  0,  0,  0,  0, -5,
+		  -5,  0,  0,  0,  0,  0,  0, -5,
+		  -5,  0,  0,  0,  0,  0,  0, -5,
+		   0,  0,  0,  5,  5,  0,  0,  0 };
+
+	// a rook on the seventh rank still counts, a rook at home no longer does
+	private static final int[] ROOK_ENDGAME_SCORES =
+		 { 0,  0,  0,  0,  0,  0,  0,  0,
+		  10, 10, 10, 10, 10, 10, 10, 10,
+		   0,  0,  0,  0,  0,  0,  0,  0,
+		   0,  0,  0,  0,  0,  0,  0,  0,
+		   0,  0,  0,  0,  0,  0,  0,  0,
+		   0,  0,  0,  0,  0,  0,  0,  0,
+		   0,  0,  0,  0,  0,  0,  0,  0,
+		   0,  0,  0,  0,  0,  0,  0,  0 };
+
+	private static final int[] QUEEN_POSITION_SCORES =
+		 { -20,-10,-10, -5, -5,-10,-10,-20,
+		   -10,  0,  0,  0,  0,  0,  0,-10,
+		   -10,  0,  5,  5,  5,  5,  0,-10,
+		   -5,  0,  5,  5,  5,  5,  0, -5,
+		    0,  0,  5,  5,  5,  5,  0, -5,
+		   -10,  5,  5,  5,  5,  5,  0,-10,
+		   -10,  0,  5,  0,  0,  0,  0,-10,
+		   -20,-10,-10, -5, -5,-10,-10,-20};
+
+	// a queen no longer needs to stay out of harm's way: the more central the more she covers
+	private static final int[] QUEEN_ENDGAME_SCORES =
+		 { -20,-10,-10,-10,-10,-10,-10,-20,
+		   -10,  0,  5,  5,  5,  5,  0,-10,
+		   -10,  5, 10, 10, 10, 10,  5,-10,
+		   -10,  5, 10, 15, 15, 10,  5,-10,
+		   -10,  5, 10, 15, 15, 10,  5,-10,
+		   -10,  5, 10, 10, 10, 10,  5,-10,
+		   -10,  0,  5,  5,  5,  5,  0,-10,
+		   -20,-10,-10,-10,-10,-10,-10,-20};
+
+	private static final int[] KING_MIDGAME_SCORES =
+		 { -30,-40,-40,-50,-50,-40,-40,-30,
+		   -30,-40,-40,-50,-50,-40,-40,-30,
+		   -30,-40,-40,-50,-50,-40,-40,-30,
+		   -30,-40,-40,-50,-50,-40,-40,-30,
+		   -20,-30,-30,-40,-40,-30,-30,-20,
+		   -10,-20,-20,-20,-20,-20,-20,-10,
+		    20, 20,  0,  0,  0,  0, 20, 20,
+		    20, 30, 10,  0,  0, 10, 30, 20};
+
+	private static final int[] KING_ENDGAME_SCORES =
+		{ -50,-40,-30,-20,-20,-30,-40,-50,
+			-30,-20,-10,  0,  0,-10,-20,-30,
+			-30,-10, 20, 30, 30, 20,-10,-30,
+			-30,-10, 30, 40, 40, 30,-10,-30,
+			-30,-10, 30, 40, 40, 30,-10,-30,
+			-30,-10, 20, 30, 30, 20,-10,-30,
+			-30,-30,  0,  0,  0,  0,-30,-30,
+			-50,-30,-30,-30,-30,-30,-30,-50};
+
+	// by piece type
+	private static final int[][] MIDGAME_TABLES = { PAWN_POSITION_SCORES, KNIGHT_POSITION_SCORES,
+			BISHOP_POSITION_SCORES, ROOK_POSITION_SCORES, QUEEN_POSITION_SCORES, KING_MIDGAME_SCORES };
+	private static final int[][] ENDGAME_TABLES = { PAWN_ENDGAME_SCORES, KNIGHT_ENDGAME_SCORES,
+			BISHOP_ENDGAME_SCORES, ROOK_ENDGAME_SCORES, QUEEN_ENDGAME_SCORES, KING_ENDGAME_SCORES };
+
+	public static final int MAX_PHASE = 24;
+	private static final int[] PHASE_WEIGHTS = { 0, 1, 1, 2, 4, 0 }; // by piece type
+
+	// by piece index (side * 6 + piece type), white positive
+	private static final int[] MATERIAL = new int[12];
+	private static final int[] MIDGAME = new int[12 * BoardUtils.NUM_TILES];
+	private static final int[] ENDGAME = new int[12 * BoardUtils.NUM_TILES];
+
+	static {
+		for (final PieceType type : PieceType.values()) {
+			for (int side = 0; side < 2; side++) {
+				final int piece = BitBoards.pieceIndex(side, type.getEnum());
+				final int sign = side == 0 ? 1 : -1;
+				MATERIAL[piece] = sign * type.getValue();
+				for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+					MIDGAME[piece * BoardUtils.NUM_TILES + tile] = sign
+							* MIDGAME_TABLES[type.getEnum()][relativeTile(tile, side)];
+					ENDGAME[piece * BoardUtils.NUM_TILES + tile] = sign
+							* ENDGAME_TABLES[type.getEnum()][relativeTile(tile, side)];
+				}
+			}
+		}
+	}
+
+	private PieceSquareTables() {
+		throw new RuntimeException("You cannot instantiate this class.");
+	}
+
+	/*
+	 * Value of a piece index, positive for white and negative for black.
+	 */
+	public static int materialScore(final int piece) {
+		return MATERIAL[piece];
+	}
+
+	/*
+	 * Midgame and endgame table scores of a piece index on a 0 - 63 tile,
+	 * positive for white and negative for black.
+	 */
+	public static int midgameScore(final int piece, final int tile) {
+		return MIDGAME[piece * BoardUtils.NUM_TILES + tile];
+	}
+
+	public static int endgameScore(final int piece, final int tile) {
+		return ENDGAME[piece * BoardUtils.NUM_TILES + tile];
+	}
+
+	/*
+	 * Table score of a piece of the given side and type on a 0 - 63 tile, from
+	 * that side's point of view, tapered by the game phase.
+	 */
+	public static int positionScore(final PieceType type, final int side, final int tile, final int phase) {
+		final int index = relativeTile(tile, side);
+		return taper(MIDGAME_TABLES[type.getEnum()][index], ENDGAME_TABLES[type.getEnum()][index], phase);
+	}
+
+	/*
+	 * How much a piece index counts towards the game phase.
+	 */
+	public static int phaseWeight(final int piece) {
+		return PHASE_WEIGHTS[piece % 6];
+	}
+
+	/*
+	 * Blends a midgame and an endgame score: all midgame at MAX_PHASE, all
+	 * endgame at 0. Extra queens from promotions do not push the phase past
+	 * MAX_PHASE.
+	 */
+	public static int taper(final int midgame, final int endgame, final int phase) {
+		final int clamped = Math.min(phase, MAX_PHASE);
+		return (midgame * clamped + endgame * (MAX_PHASE - clamped)) / MAX_PHASE;
+	}
+
+	private static int relativeTile(final int tile, final int side) {
+		return side == 0 ? tile : 8 * (7 - tile / 8) + tile % 8;
+	}
+}
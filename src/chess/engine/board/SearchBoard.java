@@ -0,0 +1,794 @@
+package chess.engine.board;
+
+import chess.engine.Side;
+import chess.engine.ZobristHash;
+import chess.engine.pieces.King;
+import chess.engine.pieces.Pawn;
+import chess.engine.pieces.Piece;
+
+/*
+ * This class is a mutable board for the search. Unlike Board, which is rebuilt from scratch for every
+ * move, a SearchBoard is created once from a Board and then updated in place with make(move) and
+ * unmake(move). Moves are packed ints (see PackedMove) that carry their own captured piece; everything
+ * else make() overwrites (castling rights, en passant tile, castled kings and hash) is pushed onto an
+ * undo stack, so unmake() restores the previous position exactly.
+ *
+ * Pieces are stored both as twelve bitboards and as a 64-entry array of piece indexes
+ * (side * 6 + piece type, or NO_PIECE for an empty tile), all in 0 - 63 tile coordinates.
+ * Placing and removing a piece also updates the material, piece-square and game phase sums (see
+ * PieceSquareTables), so unmake() restores them without an undo stack.
+ * Board stays the immutable representation used by the GUI.
+ */
+
+public final class SearchBoard {
+
+	public static final int NO_PIECE = 12;
+	public static final int NO_SQUARE = -1;
+	public static final int MAX_PLY = 256; // depth of the undo stack
+
+	private static final int WHITE = 0;
+	private static final int BLACK = 1;
+	private static final int PAWN = 0;
+	private static final int KNIGHT = 1;
+	private static final int BISHOP = 2;
+	private static final int ROOK = 3;
+	private static final int QUEEN = 4;
+	private static final int KING = 5;
+
+	private final long[] pieceBitboards = new long[12];
+	private final long[] sideOccupancy = new long[2];
+	private long occupancy;
+	private final int[] squares = new int[BoardUtils.NUM_TILES];
+
+	private int sideToMove;
+	private int castlingRights;
+	private int enPassantSquare; // tile a pawn skipped with its last move, or NO_SQUARE
+	private int castled; // bit per side, set once that side has castled
+	private final int gamePly; // half-moves played in the game before this board was created
+	private long hash;
+	private int material; // white minus black
+	private int midgameScore; // white minus black
+	private int endgameScore; // white minus black
+	private int phase;
+
+	// undo stack
+	private int ply;
+	private final int[] castlingStack = new int[MAX_PLY];
+	private final int[] enPassantStack = new int[MAX_PLY];
+	private final int[] castledStack = new int[MAX_PLY];
+	private final long[] hashStack = new long[MAX_PLY];
+
+	/*
+	 * CONSTRUCTOR: copies the position of an immutable Board.
+	 */
+
+	public SearchBoard(final Board board) {
+		for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+			this.squares[tile] = NO_PIECE;
+		}
+		for (final Piece piece : board.getAllPieces()) {
+			putPiece(piece.getPosition(), pieceIndex(piece));
+			if (piece instanceof King && ((King) piece).isCastled()) {
+				this.castled |= 1 << piece.getSide().getEnum();
+			}
+		}
+		this.sideToMove = board.currentPlayer().getSide().getEnum();
+		this.castlingRights = board.getCastlingRights();
+		final Pawn enPassantPawn = board.getEnPassantPawn();
+		this.enPassantSquare = enPassantPawn == null ? NO_SQUARE
+				: enPassantPawn.getPosition() - BoardUtils.TILES_PER_ROW * enPassantPawn.getSide().getDirection();
+		this.gamePly = board.getPlyCount();
+		this.ply = 0;
+		this.hash = computeHash();
+	}
+
+	private static int pieceIndex(final Piece piece) {
+		return BitBoards.pieceIndex(piece.getSide().getEnum(), piece.getType().getEnum());
+	}
+
+	/*
+	 * Accessors.
+	 */
+
+	public long getBitboard(final int side, final int pieceType) {
+		return this.pieceBitboards[BitBoards.pieceIndex(side, pieceType)];
+	}
+
+	public long getOccupancy(final int side) {
+		return this.sideOccupancy[side];
+	}
+
+	public long getOccupancy() {
+		return this.occupancy;
+	}
+
+	/*
+	 * Returns the piece index (side * 6 + piece type) on a 0 - 63 tile, or
+	 * NO_PIECE.
+	 */
+	public int getPiece(final int tile) {
+		return this.squares[tile];
+	}
+
+	public int getSideToMove() {
+		return this.sideToMove;
+	}
+
+	public Side getSide() {
+		return this.sideToMove == WHITE ? Side.WHITE : Side.BLACK;
+	}
+
+	public int getCastlingRights() {
+		return this.castlingRights;
+	}
+
+	public int getEnPassantSquare() {
+		return this.enPassantSquare;
+	}
+
+	public boolean isCastled(final int side) {
+		return (this.castled & (1 << side)) != 0;
+	}
+
+	public long getHash() {
+		return this.hash;
+	}
+
+	/*
+	 * Sum of piece values, white minus black.
+	 */
+	public int getMaterial() {
+		return this.material;
+	}
+
+	/*
+	 * Sums of midgame and endgame piece-square scores, white minus black.
+	 */
+	public int getMidgameScore() {
+		return this.midgameScore;
+	}
+
+	public int getEndgameScore() {
+		return this.endgameScore;
+	}
+
+	/*
+	 * Game phase, from PieceSquareTables.MAX_PHASE (or more, after
+	 * promotions) in the opening down to 0 with only kings and pawns.
+	 */
+	public int getPhase() {
+		return this.phase;
+	}
+
+	public int getPly() {
+		return this.ply;
+	}
+
+	/*
+	 * Half-moves played in the game up to the position this board was
+	 * created from (Board.getPlyCount). Moves made on this board do not
+	 * count, so the evaluation of a position does not depend on how deep in
+	 * the search it is reached.
+	 */
+	public int getGamePly() {
+		return this.gamePly;
+	}
+
+	public int getKingSquare(final int side) {
+		return BitBoards.firstSquare(this.pieceBitboards[BitBoards.pieceIndex(side, KING)]);
+	}
+
+	/*
+	 * Attack queries.
+	 */
+
+	public boolean isAttacked(final int tile, final int attacker) {
+		final int defender = attacker ^ 1;
+		return (BitBoards.PAWN_ATTACKS[defender][tile] & getBitboard(attacker, PAWN)) != 0
+				|| (BitBoards.KNIGHT_ATTACKS[tile] & getBitboard(attacker, KNIGHT)) != 0
+				|| (BitBoards.KING_ATTACKS[tile] & getBitboard(attacker, KING)) != 0
+				|| (MagicBitboards.bishopAttacks(tile, this.occupancy)
+						& (getBitboard(attacker, BISHOP) | getBitboard(attacker, QUEEN))) != 0
+				|| (MagicBitboards.rookAttacks(tile, this.occupancy)
+						& (getBitboard(attacker, ROOK) | getBitboard(attacker, QUEEN))) != 0;
+	}
+
+	/*
+	 * Every piece of either side attacking a 0 - 63 tile, as if the board held
+	 * the given occupancy (so sliders can be looked through or behind).
+	 */
+	public long attackersTo(final int tile, final long occupancy) {
+		return (BitBoards.PAWN_ATTACKS[BLACK][tile] & getBitboard(WHITE, PAWN))
+				| (BitBoards.PAWN_ATTACKS[WHITE][tile] & getBitboard(BLACK, PAWN))
+				| (BitBoards.KNIGHT_ATTACKS[tile] & (getBitboard(WHITE, KNIGHT) | getBitboard(BLACK, KNIGHT)))
+				| (BitBoards.KING_ATTACKS[tile] & (getBitboard(WHITE, KING) | getBitboard(BLACK, KING)))
+				| (MagicBitboards.bishopAttacks(tile, occupancy) & diagonalSliders())
+				| (MagicBitboards.rookAttacks(tile, occupancy) & straightSliders());
+	}
+
+	private long diagonalSliders() {
+		return getBitboard(WHITE, BISHOP) | getBitboard(BLACK, BISHOP) | getBitboard(WHITE, QUEEN)
+				| getBitboard(BLACK, QUEEN);
+	}
+
+	private long straightSliders() {
+		return getBitboard(WHITE, ROOK) | getBitboard(BLACK, ROOK) | getBitboard(WHITE, QUEEN)
+				| getBitboard(BLACK, QUEEN);
+	}
+
+	/*
+	 * Enemy pieces giving check to the side to move.
+	 */
+	public long checkers() {
+		return attackersTo(getKingSquare(this.sideToMove), this.occupancy) & this.sideOccupancy[this.sideToMove ^ 1];
+	}
+
+	/*
+	 * Pieces of the given side that stand alone between their king and an
+	 * enemy slider, and so may only move along that line.
+	 */
+	public long pinnedPieces(final int side) {
+		final int kingTile = getKingSquare(side);
+		final long enemies = this.sideOccupancy[side ^ 1];
+		// sliders that would hit the king if none of our pieces were in the way
+		long snipers = (MagicBitboards.rookAttacks(kingTile, enemies)
+				& (getBitboard(side ^ 1, ROOK) | getBitboard(side ^ 1, QUEEN)))
+				| (MagicBitboards.bishopAttacks(kingTile, enemies)
+						& (getBitboard(side ^ 1, BISHOP) | getBitboard(side ^ 1, QUEEN)));
+		long pinned = 0;
+		while (snipers != 0) {
+			final int sniper = BitBoards.firstSquare(snipers);
+			snipers &= snipers - 1;
+			final long blockers = BitBoards.BETWEEN[kingTile][sniper] & this.occupancy;
+			if (BitBoards.popCount(blockers) == 1) {
+				pinned |= blockers & this.sideOccupancy[side];
+			}
+		}
+		return pinned;
+	}
+
+	/*
+	 * Returns whether the side has anything besides pawns and its king. With
+	 * only pawns left, zugzwang is common and passing the turn is no measure
+	 * of a position.
+	 */
+	public boolean hasNonPawnMaterial(final int side) {
+		return (this.sideOccupancy[side] & ~getBitboard(side, PAWN) & ~getBitboard(side, KING)) != 0;
+	}
+
+	public boolean inCheck() {
+		return isAttacked(getKingSquare(this.sideToMove), this.sideToMove ^ 1);
+	}
+
+	/*
+	 * After make(), tells whether the move was legal: the side that just
+	 * moved must not have left its own king attacked.
+	 */
+	public boolean isLegalPosition() {
+		final int moved = this.sideToMove ^ 1;
+		return !isAttacked(getKingSquare(moved), this.sideToMove);
+	}
+
+	/*
+	 * Piece placement. These keep the bitboards, the tile array, the hash and
+	 * the evaluation sums in step.
+	 */
+
+	private void putPiece(final int tile, final int piece) {
+		final long bit = BitBoards.squareBit(tile);
+		this.pieceBitboards[piece] |= bit;
+		this.sideOccupancy[piece / 6] |= bit;
+		this.occupancy |= bit;
+		this.squares[tile] = piece;
+		this.hash ^= ZobristHash.pieceKey(piece, tile);
+		this.material += PieceSquareTables.materialScore(piece);
+		this.midgameScore += PieceSquareTables.midgameScore(piece, tile);
+		this.endgameScore += PieceSquareTables.endgameScore(piece, tile);
+		this.phase += PieceSquareTables.phaseWeight(piece);
+	}
+
+	private void removePiece(final int tile) {
+		final int piece = this.squares[tile];
+		final long bit = BitBoards.squareBit(tile);
+		this.pieceBitboards[piece] &= ~bit;
+		this.sideOccupancy[piece / 6] &= ~bit;
+		this.occupancy &= ~bit;
+		this.squares[tile] = NO_PIECE;
+		this.hash ^= ZobristHash.pieceKey(piece, tile);
+		this.material -= PieceSquareTables.materialScore(piece);
+		this.midgameScore -= PieceSquareTables.midgameScore(piece, tile);
+		this.endgameScore -= PieceSquareTables.endgameScore(piece, tile);
+		this.phase -= PieceSquareTables.phaseWeight(piece);
+	}
+
+	private void movePiece(final int start, final int destination) {
+		final int piece = this.squares[start];
+		removePiece(start);
+		putPiece(destination, piece);
+	}
+
+	/*
+	 * Makes a packed move (see PackedMove) generated for this position.
+	 */
+
+	public void make(final int move) {
+		final int start = PackedMove.getStart(move);
+		final int destination = PackedMove.getDestination(move);
+		final int captured = PackedMove.getCaptured(move);
+		final int flag = PackedMove.getFlag(move);
+		final int side = this.sideToMove;
+
+		this.castlingStack[this.ply] = this.castlingRights;
+		this.enPassantStack[this.ply] = this.enPassantSquare;
+		this.castledStack[this.ply] = this.castled;
+		this.hashStack[this.ply] = this.hash;
+
+		if (captured != NO_PIECE) {
+			removePiece(capturedTile(move, side));
+		}
+		movePiece(start, destination);
+		if (PackedMove.isPromotion(move)) {
+			removePiece(destination);
+			putPiece(destination, BitBoards.pieceIndex(side, PackedMove.getPromotionType(move)));
+		} else if (flag == PackedMove.CASTLING) {
+			// the rook jumps over the king
+			final boolean kingside = destination > start;
+			movePiece(kingside ? start + 3 : start - 4, kingside ? start + 1 : start - 1);
+			this.castled |= 1 << side;
+		}
+
+		if (this.enPassantSquare != NO_SQUARE) {
+			this.hash ^= ZobristHash.enPassantKey(this.enPassantSquare % BoardUtils.TILES_PER_ROW);
+		}
+		this.enPassantSquare = NO_SQUARE;
+		if (flag == PackedMove.PAWN_JUMP) {
+			this.enPassantSquare = (start + destination) / 2;
+			this.hash ^= ZobristHash.enPassantKey(this.enPassantSquare % BoardUtils.TILES_PER_ROW);
+		}
+
+		final int rights = BoardUtils.updateCastlingRights(this.castlingRights, start, destination);
+		this.hash ^= ZobristHash.castlingKey(this.castlingRights) ^ ZobristHash.castlingKey(rights);
+		this.castlingRights = rights;
+
+		this.sideToMove ^= 1;
+		this.hash ^= ZobristHash.blackToMoveKey();
+		this.ply++;
+		if (ZobristHash.VERIFY) {
+			ZobristHash.verify(this.hash, computeHash(), PackedMove.toString(move));
+		}
+	}
+
+	/*
+	 * Passes the turn (the null move): only the side to move and the en
+	 * passant tile change. Never call this while in check.
+	 */
+
+	public void makeNullMove() {
+		this.castlingStack[this.ply] = this.castlingRights;
+		this.enPassantStack[this.ply] = this.enPassantSquare;
+		this.castledStack[this.ply] = this.castled;
+		this.hashStack[this.ply] = this.hash;
+
+		if (this.enPassantSquare != NO_SQUARE) {
+			this.hash ^= ZobristHash.enPassantKey(this.enPassantSquare % BoardUtils.TILES_PER_ROW);
+			this.enPassantSquare = NO_SQUARE;
+		}
+		this.sideToMove ^= 1;
+		this.hash ^= ZobristHash.blackToMoveKey();
+		this.ply++;
+		if (ZobristHash.VERIFY) {
+			ZobristHash.verify(this.hash, computeHash(), "null move");
+		}
+	}
+
+	public void unmakeNullMove() {
+		this.ply--;
+		this.sideToMove ^= 1;
+		this.enPassantSquare = this.enPassantStack[this.ply];
+		this.hash = this.hashStack[this.ply];
+	}
+
+	/*
+	 * Takes back the last move, which must be the one passed in.
+	 */
+
+	public void unmake(final int move) {
+		this.ply--;
+		this.sideToMove ^= 1;
+		final int start = PackedMove.getStart(move);
+		final int destination = PackedMove.getDestination(move);
+		final int captured = PackedMove.getCaptured(move);
+
+		if (PackedMove.isCastling(move)) {
+			final boolean kingside = destination > start;
+			movePiece(kingside ? start + 1 : start - 1, kingside ? start + 3 : start - 4);
+		}
+		// removing and re-adding also undoes a promotion
+		removePiece(destination);
+		putPiece(start, PackedMove.getPiece(move));
+		if (captured != NO_PIECE) {
+			putPiece(capturedTile(move, this.sideToMove), captured);
+		}
+
+		this.castlingRights = this.castlingStack[this.ply];
+		this.enPassantSquare = this.enPassantStack[this.ply];
+		this.castled = this.castledStack[this.ply];
+		this.hash = this.hashStack[this.ply];
+	}
+
+	/*
+	 * The tile a capture removes a piece from: the destination, except for en
+	 * passant, where the captured pawn stands behind it.
+	 */
+	private static int capturedTile(final int move, final int side) {
+		final int destination = PackedMove.getDestination(move);
+		if (PackedMove.getFlag(move) == PackedMove.EN_PASSANT) {
+			return destination + (side == WHITE ? BoardUtils.TILES_PER_ROW : -BoardUtils.TILES_PER_ROW);
+		}
+		return destination;
+	}
+
+	/*
+	 * Adapters for the Move classes, so moves generated on a Board can be made
+	 * on this board directly.
+	 */
+
+	public void make(final Move move) {
+		make(PackedMove.fromMove(move));
+	}
+
+	public void unmake(final Move move) {
+		unmake(PackedMove.fromMove(move));
+	}
+
+	/*
+	 * Packs a move of the side to move given by its 0 - 63 start and
+	 * destination tiles, and the piece type a pawn promotes to (ignored for
+	 * other moves). Returns PackedMove.NONE if no piece stands on start.
+	 */
+	public int createMove(final int start, final int destination, final int promotionType) {
+		final int piece = this.squares[start];
+		if (piece == NO_PIECE) {
+			return PackedMove.NONE;
+		}
+		final int type = piece % 6;
+		int captured = this.squares[destination];
+		int flag = PackedMove.NORMAL;
+		int promotion = 0;
+		if (type == PAWN) {
+			if (destination == this.enPassantSquare) {
+				flag = PackedMove.EN_PASSANT;
+				captured = BitBoards.pieceIndex(piece / 6 ^ 1, PAWN);
+			} else if (Math.abs(destination - start) == 2 * BoardUtils.TILES_PER_ROW) {
+				flag = PackedMove.PAWN_JUMP;
+			} else if (destination / BoardUtils.TILES_PER_ROW == 0 || destination / BoardUtils.TILES_PER_ROW == 7) {
+				promotion = promotionType;
+			}
+		} else if (type == KING && Math.abs(destination - start) == 2) {
+			flag = PackedMove.CASTLING;
+		}
+		return PackedMove.create(start, destination, piece, captured, flag, promotion);
+	}
+
+	/*
+	 * Returns whether a packed move, typically remembered from another
+	 * position (a hash or killer move), could be made here, whether or not
+	 * it leaves the king in check.
+	 */
+	public boolean isPseudoLegal(final int move) {
+		if (move == PackedMove.NONE) {
+			return false;
+		}
+		final int start = PackedMove.getStart(move);
+		final int destination = PackedMove.getDestination(move);
+		final int piece = PackedMove.getPiece(move);
+		final int captured = PackedMove.getCaptured(move);
+		final int side = this.sideToMove;
+		if (piece / 6 != side || this.squares[start] != piece) {
+			return false;
+		}
+		final int flag = PackedMove.getFlag(move);
+		final int type = piece % 6;
+		if (flag == PackedMove.EN_PASSANT) {
+			return destination == this.enPassantSquare
+					&& BitBoards.isSet(BitBoards.PAWN_ATTACKS[side][start], destination);
+		}
+		if (this.squares[destination] != captured || (captured != NO_PIECE && captured / 6 == side)) {
+			return false;
+		}
+		if (flag == PackedMove.CASTLING) {
+			return destination > start ? canCastle(side, true) : canCastle(side, false);
+		}
+		if (type != PAWN) {
+			return BitBoards.isSet(attacks(type, start), destination);
+		}
+		if (isLastRank(destination) != PackedMove.isPromotion(move)) {
+			return false;
+		}
+		final int step = side == WHITE ? -BoardUtils.TILES_PER_ROW : BoardUtils.TILES_PER_ROW;
+		if (captured != NO_PIECE) {
+			return BitBoards.isSet(BitBoards.PAWN_ATTACKS[side][start], destination);
+		}
+		if (flag == PackedMove.PAWN_JUMP) {
+			final int pawnRank = side == WHITE ? BoardUtils.WHITE_PAWN_RANK : BoardUtils.BLACK_PAWN_RANK;
+			return start / BoardUtils.TILES_PER_ROW == pawnRank && destination == start + 2 * step
+					&& !BitBoards.isSet(this.occupancy, start + step);
+		}
+		return destination == start + step;
+	}
+
+	/*
+	 * Tiles a knight, bishop, rook, queen or king on a 0 - 63 tile attacks in
+	 * the current position.
+	 */
+	public long attacks(final int type, final int tile) {
+		switch (type) {
+		case KNIGHT:
+			return BitBoards.KNIGHT_ATTACKS[tile];
+		case BISHOP:
+			return MagicBitboards.bishopAttacks(tile, this.occupancy);
+		case ROOK:
+			return MagicBitboards.rookAttacks(tile, this.occupancy);
+		case QUEEN:
+			return MagicBitboards.queenAttacks(tile, this.occupancy);
+		case KING:
+			return BitBoards.KING_ATTACKS[tile];
+		default:
+			throw new RuntimeException("Piece type not recognized!");
+		}
+	}
+
+	private static boolean isLastRank(final int tile) {
+		return tile / BoardUtils.TILES_PER_ROW == 0 || tile / BoardUtils.TILES_PER_ROW == BoardUtils.TILES_PER_ROW - 1;
+	}
+
+	private static void addPromotions(final MoveList moves, final int start, final int destination, final int pawn,
+			final int captured) {
+		for (int type = QUEEN; type >= KNIGHT; type--) {
+			moves.add(PackedMove.create(start, destination, pawn, captured, PackedMove.NORMAL, type));
+		}
+	}
+
+	private void addCastles(final MoveList moves, final int side) {
+		final int kingTile = side == WHITE ? 60 : 4;
+		final int king = BitBoards.pieceIndex(side, KING);
+		if (canCastle(side, true)) {
+			moves.add(PackedMove.create(kingTile, kingTile + 2, king, NO_PIECE, PackedMove.CASTLING, 0));
+		}
+		if (canCastle(side, false)) {
+			moves.add(PackedMove.create(kingTile, kingTile - 2, king, NO_PIECE, PackedMove.CASTLING, 0));
+		}
+	}
+
+	/*
+	 * Castling needs the right, empty tiles between king and rook, and a king
+	 * that is neither in check nor passing over or landing on an attacked tile.
+	 */
+	private boolean canCastle(final int side, final boolean kingside) {
+		final int kingTile = side == WHITE ? 60 : 4;
+		final int right = kingside ? (side == WHITE ? BoardUtils.WHITE_KINGSIDE : BoardUtils.BLACK_KINGSIDE)
+				: (side == WHITE ? BoardUtils.WHITE_QUEENSIDE : BoardUtils.BLACK_QUEENSIDE);
+		final int direction = kingside ? 1 : -1;
+		final int rookTile = kingside ? kingTile + 3 : kingTile - 4;
+		if ((this.castlingRights & right) == 0 || this.squares[kingTile] != BitBoards.pieceIndex(side, KING)
+				|| this.squares[rookTile] != BitBoards.pieceIndex(side, ROOK)) {
+			return false;
+		}
+		for (int tile = kingTile + direction; tile != rookTile; tile += direction) {
+			if (BitBoards.isSet(this.occupancy, tile)) {
+				return false;
+			}
+		}
+		return !isAttacked(kingTile, side ^ 1) && !isAttacked(kingTile + direction, side ^ 1)
+				&& !isAttacked(kingTile + 2 * direction, side ^ 1);
+	}
+
+	private static Piece flyweight(final int tile, final int piece) {
+		return Piece.ALL_POSSIBLE_PIECES[tile][piece / 6][piece % 6];
+	}
+
+	/*
+	 * Fully legal move generation. Checkers and pinned pieces are worked out
+	 * once per call, so no move has to be made to test it:
+	 *
+	 * - the king may go to any tile not attacked once it has left its own tile
+	 * - in double check only the king may move
+	 * - in single check the other pieces must capture the checker or block it
+	 * - a pinned piece may only move along the line through its king
+	 *
+	 * Only en passant, which removes two pieces from a rank, is tested by
+	 * making it.
+	 */
+
+	public void generateLegalMoves(final MoveList moves) {
+		generateLegal(moves, true, true);
+	}
+
+	/*
+	 * The two halves of generateLegalMoves, so a search can try the captures
+	 * before paying for the quiet moves. Promotions count as captures, since
+	 * they change the material balance just as much.
+	 */
+
+	public void generateLegalCaptures(final MoveList moves) {
+		generateLegal(moves, true, false);
+	}
+
+	public void generateLegalQuiets(final MoveList moves) {
+		generateLegal(moves, false, true);
+	}
+
+	/*
+	 * All legal replies to a check: king moves, captures of the checker and
+	 * blocks. Only valid while the side to move is in check.
+	 */
+	public void generateEvasions(final MoveList moves) {
+		generateLegal(moves, true, true);
+	}
+
+	private void generateLegal(final MoveList moves, final boolean captures, final boolean quiets) {
+		final int side = this.sideToMove;
+		final long enemies = this.sideOccupancy[side ^ 1];
+		final int kingTile = getKingSquare(side);
+		final long checkers = attackersTo(kingTile, this.occupancy) & enemies;
+		final long targets = (captures ? enemies : 0) | (quiets ? ~this.occupancy : 0);
+
+		final int king = BitBoards.pieceIndex(side, KING);
+		long kingTargets = BitBoards.KING_ATTACKS[kingTile] & targets;
+		final long withoutKing = this.occupancy & ~BitBoards.squareBit(kingTile);
+		while (kingTargets != 0) {
+			final int destination = BitBoards.firstSquare(kingTargets);
+			kingTargets &= kingTargets - 1;
+			if ((attackersTo(destination, withoutKing) & enemies) == 0) {
+				moves.add(PackedMove.create(kingTile, destination, king, this.squares[destination], PackedMove.NORMAL,
+						0));
+			}
+		}
+		if (BitBoards.popCount(checkers) > 1) {
+			return;
+		}
+
+		// tiles the other pieces may move to: anywhere, or onto the line of a single check
+		final long checkMask = checkers == 0 ? ~0L
+				: checkers | BitBoards.BETWEEN[kingTile][BitBoards.firstSquare(checkers)];
+		final long pinned = pinnedPieces(side);
+
+		final int step = side == WHITE ? -BoardUtils.TILES_PER_ROW : BoardUtils.TILES_PER_ROW;
+		final int pawnRank = side == WHITE ? BoardUtils.WHITE_PAWN_RANK : BoardUtils.BLACK_PAWN_RANK;
+		final int pawn = BitBoards.pieceIndex(side, PAWN);
+		long pawns = this.pieceBitboards[pawn];
+		while (pawns != 0) {
+			final int start = BitBoards.firstSquare(pawns);
+			pawns &= pawns - 1;
+			final long allowed = BitBoards.isSet(pinned, start) ? checkMask & BitBoards.LINE[kingTile][start]
+					: checkMask;
+			final int advance = start + step;
+			if (!BitBoards.isSet(this.occupancy, advance)) {
+				if (isLastRank(advance)) {
+					if (captures && BitBoards.isSet(allowed, advance)) {
+						addPromotions(moves, start, advance, pawn, NO_PIECE);
+					}
+				} else if (quiets) {
+					if (BitBoards.isSet(allowed, advance)) {
+						moves.add(PackedMove.create(start, advance, pawn, NO_PIECE, PackedMove.NORMAL, 0));
+					}
+					final int jump = advance + step;
+					if (start / BoardUtils.TILES_PER_ROW == pawnRank && !BitBoards.isSet(this.occupancy, jump)
+							&& BitBoards.isSet(allowed, jump)) {
+						moves.add(PackedMove.create(start, jump, pawn, NO_PIECE, PackedMove.PAWN_JUMP, 0));
+					}
+				}
+			}
+			if (!captures) {
+				continue;
+			}
+			long pawnCaptures = BitBoards.PAWN_ATTACKS[side][start] & enemies & allowed;
+			while (pawnCaptures != 0) {
+				final int destination = BitBoards.firstSquare(pawnCaptures);
+				pawnCaptures &= pawnCaptures - 1;
+				if (isLastRank(destination)) {
+					addPromotions(moves, start, destination, pawn, this.squares[destination]);
+				} else {
+					moves.add(PackedMove.create(start, destination, pawn, this.squares[destination],
+							PackedMove.NORMAL, 0));
+				}
+			}
+			if (this.enPassantSquare != NO_SQUARE
+					&& BitBoards.isSet(BitBoards.PAWN_ATTACKS[side][start], this.enPassantSquare)) {
+				final int move = PackedMove.create(start, this.enPassantSquare, pawn,
+						BitBoards.pieceIndex(side ^ 1, PAWN), PackedMove.EN_PASSANT, 0);
+				make(move);
+				if (isLegalPosition()) {
+					moves.add(move);
+				}
+				unmake(move);
+			}
+		}
+
+		for (int type = KNIGHT; type <= QUEEN; type++) {
+			final int piece = BitBoards.pieceIndex(side, type);
+			long pieces = this.pieceBitboards[piece];
+			while (pieces != 0) {
+				final int start = BitBoards.firstSquare(pieces);
+				pieces &= pieces - 1;
+				long destinations = attacks(type, start) & targets & checkMask;
+				if (BitBoards.isSet(pinned, start)) {
+					destinations &= BitBoards.LINE[kingTile][start];
+				}
+				while (destinations != 0) {
+					final int destination = BitBoards.firstSquare(destinations);
+					destinations &= destinations - 1;
+					moves.add(PackedMove.create(start, destination, piece, this.squares[destination],
+							PackedMove.NORMAL, 0));
+				}
+			}
+		}
+
+		if (quiets && checkers == 0) {
+			addCastles(moves, side);
+		}
+	}
+
+	/*
+	 * Returns whether a packed move remembered from another position (a hash
+	 * or killer move) is legal here.
+	 */
+	public boolean isLegal(final int move) {
+		if (!isPseudoLegal(move)) {
+			return false;
+		}
+		make(move);
+		final boolean legal = isLegalPosition();
+		unmake(move);
+		return legal;
+	}
+
+	/*
+	 * Full hash of the current position, from the same keys as
+	 * ZobristHash.getZobristHash. make() and unmake() keep this.hash equal to
+	 * it incrementally.
+	 */
+
+	public long computeHash() {
+		long key = 0;
+		for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+			final int piece = this.squares[tile];
+			if (piece != NO_PIECE) {
+				key ^= ZobristHash.pieceKey(piece, tile);
+			}
+		}
+		if (this.enPassantSquare != NO_SQUARE) {
+			key ^= ZobristHash.enPassantKey(this.enPassantSquare % BoardUtils.TILES_PER_ROW);
+		}
+		key ^= ZobristHash.castlingKey(this.castlingRights);
+		if (this.sideToMove == BLACK) {
+			key ^= ZobristHash.blackToMoveKey();
+		}
+		return key;
+	}
+
+	/*
+	 * Prints the board the same way Board.toString() does.
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder();
+		for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+			final int piece = this.squares[tile];
+			String text;
+			if (piece == NO_PIECE) {
+				text = "" + BoardUtils.board64[tile];
+			} else {
+				text = flyweight(tile, piece).toString();
+				if (piece / 6 == BLACK) {
+					text = text.toLowerCase();
+				}
+			}
+			builder.append(String.format("%3s", text));
+			if ((tile + 1) % BoardUtils.TILES_PER_ROW == 0) {
+				builder.append("\n");
+			}
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,173 @@
+package chess.engine.board;
+
+import chess.engine.pieces.Piece;
+import chess.engine.pieces.Piece.PieceType;
+
+/*
+ * Static exchange evaluation (SEE): the material a move wins or loses once both sides have made every
+ * capture on its destination that pays for them, each side always recapturing with its least valuable
+ * attacker and free to stop when recapturing would lose more. Sliders lined up behind an attacker join
+ * the exchange once the pieces in front of them are gone (x-rays).
+ *
+ * Nothing is made on the board: the exchange is played out on a copy of the occupancy bitboard. Pins
+ * and checks are ignored, and a pawn recapturing on the last rank is counted as a pawn.
+ */
+
+public final class StaticExchange {
+
+	private static final int[] PIECE_VALUES = new int[PieceType.values().length]; // by piece type
+	private static final int MAX_EXCHANGE = 32; // captures on one tile, with room to spare
+
+	static {
+		for (final PieceType type : PieceType.values()) {
+			PIECE_VALUES[type.getEnum()] = type.getValue();
+		}
+	}
+
+	private StaticExchange() {
+		throw new RuntimeException("You cannot instantiate this class.");
+	}
+
+	/*
+	 * Returns what the move wins for the side making it, in centipawns: 0 for
+	 * an even trade or a quiet move nothing can take, negative if the piece is
+	 * lost for less. Promotions gain the promoted piece minus the pawn.
+	 */
+	public static int see(final SearchBoard board, final int move) {
+		if (PackedMove.isCastling(move)) {
+			return 0;
+		}
+		final int destination = PackedMove.getDestination(move);
+		final int[] gain = new int[MAX_EXCHANGE];
+		gain[0] = firstGain(move);
+		int onDestination = movedValue(move);
+		long occupancy = occupancyAfter(board, move);
+		long attackers = board.attackersTo(destination, occupancy) & occupancy;
+		int side = PackedMove.getPiece(move) / 6 ^ 1;
+		int depth = 0;
+		while (depth < MAX_EXCHANGE - 1) {
+			final long sideAttackers = attackers & board.getOccupancy(side);
+			if (sideAttackers == 0) {
+				break;
+			}
+			final int type = leastValuableType(board, side, sideAttackers);
+			if (type == Piece.KING_INDEX && (attackers & board.getOccupancy(side ^ 1)) != 0) {
+				break; // the king may not capture into a defended tile
+			}
+			depth++;
+			gain[depth] = onDestination - gain[depth - 1];
+			onDestination = PIECE_VALUES[type];
+			occupancy ^= Long.lowestOneBit(sideAttackers & board.getBitboard(side, type));
+			attackers = (attackers | xrays(board, destination, occupancy)) & occupancy;
+			side ^= 1;
+		}
+		// each side stops the exchange where going on would lose more
+		while (depth > 0) {
+			gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+			depth--;
+		}
+		return gain[0];
+	}
+
+	/*
+	 * Returns whether see(board, move) >= threshold, stopping as soon as the
+	 * answer is known, which is usually after a capture or two.
+	 */
+	public static boolean seeGE(final SearchBoard board, final int move, final int threshold) {
+		if (PackedMove.isCastling(move)) {
+			return 0 >= threshold;
+		}
+		// balance: the score of the exchange so far, from the point of view of the side to capture next
+		int balance = firstGain(move) - threshold;
+		if (balance < 0) {
+			return false; // even if the piece is not taken back, the move falls short
+		}
+		balance = movedValue(move) - balance;
+		if (balance <= 0) {
+			return true; // even if the piece is taken back for nothing, the move is good enough
+		}
+		final int destination = PackedMove.getDestination(move);
+		long occupancy = occupancyAfter(board, move);
+		long attackers = board.attackersTo(destination, occupancy) & occupancy;
+		int side = PackedMove.getPiece(move) / 6;
+		boolean result = true;
+		while (true) {
+			side ^= 1;
+			final long sideAttackers = attackers & board.getOccupancy(side);
+			if (sideAttackers == 0) {
+				break;
+			}
+			result = !result;
+			final int type = leastValuableType(board, side, sideAttackers);
+			if (type == Piece.KING_INDEX) {
+				// the king only captures if nothing can take it back
+				return (attackers & board.getOccupancy(side ^ 1)) != 0 ? !result : result;
+			}
+			balance = PIECE_VALUES[type] - balance;
+			if (balance < (result ? 1 : 0)) {
+				break; // capturing does not change the answer
+			}
+			occupancy ^= Long.lowestOneBit(sideAttackers & board.getBitboard(side, type));
+			attackers = (attackers | xrays(board, destination, occupancy)) & occupancy;
+		}
+		return result;
+	}
+
+	/*
+	 * What the move itself wins: the captured piece and the promotion.
+	 */
+	private static int firstGain(final int move) {
+		int gain = 0;
+		if (PackedMove.isCapture(move)) {
+			gain += PIECE_VALUES[PackedMove.getCaptured(move) % 6];
+		}
+		if (PackedMove.isPromotion(move)) {
+			gain += PIECE_VALUES[PackedMove.getPromotionType(move)] - PIECE_VALUES[Piece.PAWN_INDEX];
+		}
+		return gain;
+	}
+
+	/*
+	 * The value of the piece left standing on the destination.
+	 */
+	private static int movedValue(final int move) {
+		return PackedMove.isPromotion(move) ? PIECE_VALUES[PackedMove.getPromotionType(move)]
+				: PIECE_VALUES[PackedMove.getPiece(move) % 6];
+	}
+
+	/*
+	 * The occupancy once the move is made: the moving piece has left its start
+	 * tile, and a pawn taken en passant has left its own.
+	 */
+	private static long occupancyAfter(final SearchBoard board, final int move) {
+		final int destination = PackedMove.getDestination(move);
+		long occupancy = (board.getOccupancy() & ~(1L << PackedMove.getStart(move))) | 1L << destination;
+		if (PackedMove.getFlag(move) == PackedMove.EN_PASSANT) {
+			final int side = PackedMove.getPiece(move) / 6;
+			occupancy &= ~(1L << (side == 0 ? destination + BoardUtils.TILES_PER_ROW
+					: destination - BoardUtils.TILES_PER_ROW));
+		}
+		return occupancy;
+	}
+
+	private static int leastValuableType(final SearchBoard board, final int side, final long attackers) {
+		for (int type = Piece.PAWN_INDEX; type < Piece.KING_INDEX; type++) {
+			if ((attackers & board.getBitboard(side, type)) != 0) {
+				return type;
+			}
+		}
+		return Piece.KING_INDEX;
+	}
+
+	/*
+	 * Sliders of either side that attack the tile through the given occupancy,
+	 * which uncovers the ones behind a piece that has joined the exchange.
+	 */
+	private static long xrays(final SearchBoard board, final int tile, final long occupancy) {
+		final long queens = board.getBitboard(0, Piece.QUEEN_INDEX) | board.getBitboard(1, Piece.QUEEN_INDEX);
+		final long diagonal = board.getBitboard(0, Piece.BISHOP_INDEX) | board.getBitboard(1, Piece.BISHOP_INDEX) | queens;
+		final long straight = board.getBitboard(0, Piece.ROOK_INDEX) | board.getBitboard(1, Piece.ROOK_INDEX) | queens;
+		return (MagicBitboards.bishopAttacks(tile, occupancy) & diagonal)
+				| (MagicBitboards.rookAttacks(tile, occupancy) & straight);
+	}
+}
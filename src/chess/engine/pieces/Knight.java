@@ -1,26 +1,16 @@
 package chess.engine.pieces;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
-
-import com.google.common.collect.ImmutableList;
 
 import chess.engine.Side;
+import chess.engine.board.BitBoards;
 import chess.engine.board.Board;
 import chess.engine.board.BoardUtils;
 import chess.engine.board.Move;
-import chess.engine.board.Tile;
 import chess.engine.pieces.Piece.PieceType;
 
 public class Knight extends Piece {
 
-	/*
-	 * Square-coordinate offsets given a board is stored in a 120-square mailbox
-	 * array.
-	 */
-	private final static int[] CANDIDATE_MOVE_COORDINATES = { -21, -19, -12, -8, 8, 12, 19, 21 };
-
 	/*
 	 * Constructor: position and color. Position is in terms of 120-square array
 	 * location.
@@ -35,34 +25,12 @@ public class Knight extends Piece {
 	}
 
 	/*
-	 * Calculate legal moves
+	 * Calculate legal moves from the precomputed knight attack set.
 	 */
 
 	@Override
 	public Collection<Move> calculateLegalMoves(Board board) {
-
-		int candidateDestination; // mailbox 21-98
-		final List<Move> legal = new ArrayList<>();
-
-		for (final int current : CANDIDATE_MOVE_COORDINATES) { // check each
-																// candidate
-																// move
-			candidateDestination = BoardUtils.board64[this.piecePosition] + current;
-			if (BoardUtils.inBoard(candidateDestination)) {
-				final Tile candidateDestinationTile = board.getTile(BoardUtils.mailbox[candidateDestination]); // 64
-																												// coordinate
-				if (!candidateDestinationTile.tileIsOccupied()) {
-					legal.add(new Move.QuietMove(board, this, candidateDestination));
-				} else { // if it's occupied, is it a capture or is it illegal?
-					final Piece pieceAtDestination = candidateDestinationTile.getPiece();
-					final Side color = pieceAtDestination.getSide();
-					if (this.color != color) { // capture
-						legal.add(new Move.CaptureMove(board, this, candidateDestination, pieceAtDestination));
-					}
-				}
-			}
-		}
-		return ImmutableList.copyOf(legal);
+		return calculateTargetMoves(board, BitBoards.KNIGHT_ATTACKS[this.piecePosition]);
 	}
 
 	@Override
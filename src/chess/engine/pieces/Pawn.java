@@ -7,15 +7,13 @@ import java.util.List;
 import com.google.common.collect.ImmutableList;
 
 import chess.engine.Side;
+import chess.engine.board.BitBoards;
 import chess.engine.board.Board;
 import chess.engine.board.BoardUtils;
 import chess.engine.board.Move;
-import chess.engine.board.Tile;
 
 public class Pawn extends Piece {
 
-	private final static int[] CANDIDATE_MOVE_COORDINATES = { 10, 9, 11 };
-
 	public Pawn(final int piecePosition, final Side color) {
 		super(PieceType.PAWN, piecePosition, color, false);
 	}
@@ -27,77 +25,63 @@ public class Pawn extends Piece {
 	@Override
 	public Collection<Move> calculateLegalMoves(final Board board) {
 		final List<Move> legal = new ArrayList<>();
+		final int side = this.color.getEnum();
+		final int step = BoardUtils.TILES_PER_ROW * this.color.getDirection(); // one rank forward
+		final long occupancy = board.getOccupancy();
+
+		// quiet advances: the tile in front must be empty
+		final int advance = this.piecePosition + step;
+		if (advance >= 0 && advance < BoardUtils.NUM_TILES && !BitBoards.isSet(occupancy, advance)) {
+			if (this.color.isPromotionSquare(advance)) {
+				addPromotions(legal, new Move.PawnMove(board, this, BoardUtils.board64[advance]), advance);
+			} else {
+				legal.add(new Move.PawnMove(board, this, BoardUtils.board64[advance]));
+			}
+			// you can only 2 square if you can 1 square already
+			if (BoardUtils.canTwoSquare(this) && !BitBoards.isSet(occupancy, advance + step)) {
+				legal.add(new Move.PawnJump(board, this, BoardUtils.board64[advance + step]));
+			}
+		}
 
-		for (final int offset : CANDIDATE_MOVE_COORDINATES) {
-			final int sideOffset = offset * this.getSide().getDirection();
-			final int candidateDestination = BoardUtils.board64[this.piecePosition] + sideOffset;
-			if (!BoardUtils.inBoard(candidateDestination)) {
-				continue;
+		// captures: attacked tiles holding an enemy piece
+		final long attacks = BitBoards.PAWN_ATTACKS[side][this.piecePosition];
+		long captures = attacks & board.getOccupancy(this.color.getOpponentSide());
+		while (captures != 0) {
+			final int destination = BitBoards.firstSquare(captures);
+			captures &= captures - 1;
+			final Piece pieceAtDestination = board.getTile(destination).getPiece();
+			if (this.color.isPromotionSquare(destination)) {
+				addPromotions(legal,
+						new Move.PawnCapture(board, this, BoardUtils.board64[destination], pieceAtDestination),
+						destination);
+			} else {
+				legal.add(new Move.PawnCapture(board, this, BoardUtils.board64[destination], pieceAtDestination));
 			}
-			final Tile candidateDestinationTile = board.getTile(BoardUtils.mailbox[candidateDestination]);
-			if (offset == 10 && !candidateDestinationTile.tileIsOccupied()) {
-				if (this.getSide().isPromotionSquare(BoardUtils.mailbox[candidateDestination])) {
-					legal.add(new Move.PawnPromotion(new Move.PawnMove(board, this, candidateDestination),
-							new Queen(BoardUtils.mailbox[candidateDestination], this.color)));
-					legal.add(new Move.PawnPromotion(new Move.PawnMove(board, this, candidateDestination),
-							new Rook(BoardUtils.mailbox[candidateDestination], this.color)));
-					legal.add(new Move.PawnPromotion(new Move.PawnMove(board, this, candidateDestination),
-							new Bishop(BoardUtils.mailbox[candidateDestination], this.color)));
-					legal.add(new Move.PawnPromotion(new Move.PawnMove(board, this, candidateDestination),
-							new Knight(BoardUtils.mailbox[candidateDestination], this.color)));
-				} else {
-					legal.add(new Move.PawnMove(board, this, candidateDestination));
-				}
-				if (BoardUtils.canTwoSquare(this)) {
-					// you can only 2 square if you can 1 square already
-					// BoardUtils.canTwoSquare only tests the potential for such
-					// a move (correct position + first move)
-					// no risk of out of bounds — two square will not allow it
-					if (!board.getTile(BoardUtils.mailbox[candidateDestination + sideOffset]).tileIsOccupied()) {
-						legal.add(new Move.PawnJump(board, this, candidateDestination + sideOffset));
-					}
-				}
-			} else { // captures (offset = 9 or 11), including enpassant
-				if (offset != 10) {
-					if (candidateDestinationTile.tileIsOccupied()) {
-						final Piece pieceAtDestination = candidateDestinationTile.getPiece();
-						final Side color = pieceAtDestination.getSide();
-						if (this.color != color) { // capture
-							if (this.getSide().isPromotionSquare(BoardUtils.mailbox[candidateDestination])) {
-								legal.add(new Move.PawnPromotion(
-										new Move.PawnCapture(board, this, candidateDestination, pieceAtDestination),
-										new Queen(BoardUtils.mailbox[candidateDestination], this.color)));
-								legal.add(new Move.PawnPromotion(
-										new Move.PawnCapture(board, this, candidateDestination, pieceAtDestination),
-										new Rook(BoardUtils.mailbox[candidateDestination], this.color)));
-								legal.add(new Move.PawnPromotion(
-										new Move.PawnCapture(board, this, candidateDestination, pieceAtDestination),
-										new Bishop(BoardUtils.mailbox[candidateDestination], this.color)));
-								legal.add(new Move.PawnPromotion(
-										new Move.PawnCapture(board, this, candidateDestination, pieceAtDestination),
-										new Knight(BoardUtils.mailbox[candidateDestination], this.color)));
-							} else {
-								legal.add(new Move.PawnCapture(board, this, candidateDestination, pieceAtDestination));
-							}
-						}
-					} else if (board.getEnPassantPawn() != null) {
-						if ((offset == 9 && board.getEnPassantPawn().getPosition() == 
-								this.piecePosition - this.getSide().getDirection()) ||
-								offset == 11 && board.getEnPassantPawn().getPosition() == 
-								this.piecePosition + this.getSide().getDirection()) {
-							final Piece captured = board.getEnPassantPawn();
-							if (captured.getSide() != this.color) {
-								legal.add(new Move.EnPassant(board, this, candidateDestination, captured));
-							}
-						} 
-					}
-				}
+		}
+
+		// en passant: the jumped pawn stands beside us, we capture onto the tile it skipped
+		final Pawn enPassantPawn = board.getEnPassantPawn();
+		if (enPassantPawn != null && enPassantPawn.getSide() != this.color) {
+			final int destination = enPassantPawn.getPosition() + step;
+			if (BitBoards.isSet(attacks, destination) && !BitBoards.isSet(occupancy, destination)) {
+				legal.add(new Move.EnPassant(board, this, BoardUtils.board64[destination], enPassantPawn));
 			}
 		}
 
 		return ImmutableList.copyOf(legal);
 	}
 
+	/*
+	 * Adds the four promotion choices for a pawn move onto the last rank.
+	 */
+
+	private void addPromotions(final List<Move> legal, final Move pawnMove, final int destination) {
+		legal.add(new Move.PawnPromotion(pawnMove, new Queen(destination, this.color)));
+		legal.add(new Move.PawnPromotion(pawnMove, new Rook(destination, this.color)));
+		legal.add(new Move.PawnPromotion(pawnMove, new Bishop(destination, this.color)));
+		legal.add(new Move.PawnPromotion(pawnMove, new Knight(destination, this.color)));
+	}
+
 	@Override
 	public String toString() {
 		return PieceType.PAWN.toString();
@@ -2,7 +2,10 @@ package chess.engine.pieces;
 
 import java.util.Collection;
 
+import com.google.common.collect.ImmutableList;
+
 import chess.engine.Side;
+import chess.engine.board.BitBoards;
 import chess.engine.board.Board;
 import chess.engine.board.BoardUtils;
 import chess.engine.board.Move;
@@ -128,6 +131,31 @@ public abstract class Piece {
 
 	public abstract Collection<Move> calculateLegalMoves(final Board board);
 
+	/*
+	 * Turns a bitboard of attacked tiles into quiet moves and captures. Tiles
+	 * holding a friendly piece are skipped; tiles holding an enemy piece become
+	 * captures.
+	 * 
+	 * @param targets: bitboard of tiles this piece attacks
+	 */
+
+	protected Collection<Move> calculateTargetMoves(final Board board, final long targets) {
+		final ImmutableList.Builder<Move> legal = ImmutableList.builder();
+		final long enemies = board.getOccupancy(this.color.getOpponentSide());
+		long destinations = targets & ~board.getOccupancy(this.color);
+		while (destinations != 0) {
+			final int destination = BitBoards.firstSquare(destinations);
+			destinations &= destinations - 1;
+			if (BitBoards.isSet(enemies, destination)) {
+				legal.add(new Move.CaptureMove(board, this, BoardUtils.board64[destination],
+						board.getTile(destination).getPiece()));
+			} else {
+				legal.add(new Move.QuietMove(board, this, BoardUtils.board64[destination]));
+			}
+		}
+		return legal.build();
+	}
+
 	// TODO: pre-compute and memoize all 768 (12 x 64) possible pieces given the
 	// board
 	public abstract Piece pieceFromMove(Move move);
@@ -17,10 +17,8 @@ import chess.engine.pieces.Piece.PieceType;
 
 public class BlackPlayer extends Player {
 
-	public BlackPlayer(final Board board, final Collection<Move> whiteLegalMoves,
-			final Collection<Move> blackLegalMoves) {
-		super(board, blackLegalMoves, whiteLegalMoves);
-		// board, your side, other side
+	public BlackPlayer(final Board board) {
+		super(board);
 	}
 
 	@Override
@@ -39,22 +37,21 @@ public class BlackPlayer extends Player {
 	}
 
 	@Override
-	protected Collection<Move> calculateCastles(final Collection<Move> legalMoves,
-			final Collection<Move> opponentMoves) {
+	protected Collection<Move> calculateCastles() {
 		final List<Move> kingCastles = new ArrayList<>();
 		// castle conditions:
 		// 1. not in check
-		// 2. K + R have not moved
+		// 2. K + R have not moved (the board's castling rights)
 		// Note: playerKing.getPosition() == 4
-		if (!this.playerKing.hasMoved() && !this.inCheck()) {
+		if (!this.inCheck() && this.playerKing.getPosition() == 4) {
 			// O-O; 5 and 6 are true 0 - 64 coordinates that correspond to f8
 			// and g8
-			if (!this.board.getTile(5).tileIsOccupied() && !this.board.getTile(6).tileIsOccupied()) {
+			if (this.board.hasCastlingRight(BoardUtils.BLACK_KINGSIDE) && !this.board.getTile(5).tileIsOccupied()
+					&& !this.board.getTile(6).tileIsOccupied()) {
 				final Tile rookTile = this.board.getTile(7); // 7 = h8
-				if (rookTile.tileIsOccupied() && !rookTile.getPiece().hasMoved()
-						&& rookTile.getPiece().getType() == PieceType.ROOK) {
-					if (this.attacksOnTile(5, opponentMoves).isEmpty()
-							&& this.attacksOnTile(6, opponentMoves).isEmpty()) { // 3.
+				if (rookTile.tileIsOccupied() && rookTile.getPiece().getType() == PieceType.ROOK) {
+					if (!this.board.isAttacked(5, Side.WHITE)
+							&& !this.board.isAttacked(6, Side.WHITE)) { // 3.
 																					// can't
 																					// castle
 																					// through
@@ -72,13 +69,13 @@ public class BlackPlayer extends Player {
 				}
 			}
 			// O-O-O
-			if (!this.board.getTile(1).tileIsOccupied() && !this.board.getTile(2).tileIsOccupied()
+			if (this.board.hasCastlingRight(BoardUtils.BLACK_QUEENSIDE) && !this.board.getTile(1).tileIsOccupied()
+					&& !this.board.getTile(2).tileIsOccupied()
 					&& !this.board.getTile(3).tileIsOccupied()) {
 				final Tile rookTile = this.board.getTile(0); // 0 = a8
-				if (rookTile.tileIsOccupied() && !rookTile.getPiece().hasMoved()
-						&& rookTile.getPiece().getType() == PieceType.ROOK) {
-					if (this.attacksOnTile(2, opponentMoves).isEmpty()
-							&& this.attacksOnTile(3, opponentMoves).isEmpty()) { // 3.
+				if (rookTile.tileIsOccupied() && rookTile.getPiece().getType() == PieceType.ROOK) {
+					if (!this.board.isAttacked(2, Side.WHITE)
+							&& !this.board.isAttacked(3, Side.WHITE)) { // 3.
 																					// can't
 																					// castle
 																					// through
@@ -14,39 +14,57 @@ import chess.engine.board.Board;
 import chess.engine.board.BoardUtils;
 import chess.engine.board.Move;
 import chess.engine.board.Move.CaptureMove;
+import chess.engine.board.MoveList;
+import chess.engine.board.PackedMove;
+import chess.engine.board.SearchBoard;
 import chess.engine.pieces.King;
 import chess.engine.pieces.Piece;
 import chess.engine.pieces.Piece.PieceType;
-import chess.engine.player.ai.StandardBoardEvaluator;
-import chess.gui.Table;
 
 public abstract class Player {
 
 	protected final Board board;
 	protected final King playerKing;
-	protected final Collection<Move> legalMoves; // derived from psuedo-legal move generation
+	private Collection<Move> legalMoves; // derived from psuedo-legal move generation, on first use
+	private MoveList safeMoves; // moves that do not leave the king in check, packed, on first use
 	
 	
 	private final boolean inCheck;
-	private final boolean canKingsideCastle;
-	private final boolean canQueensideCastle;
-	private final int mobility;
+	private boolean canKingsideCastle;
+	private boolean canQueensideCastle;
 	private final int pieces;
 
-	private static final StandardBoardEvaluator EVALUATOR = new StandardBoardEvaluator();
-	
-	Player(final Board board, final Collection<Move> legalMoves, final Collection<Move> opponentMoves) {
+	/*
+	 * CONSTRUCTOR: only finds the king and whether it is in check. The moves
+	 * are generated the first time they are asked for, so a board whose
+	 * opponent is never expanded never pays for the opponent's moves.
+	 */
+
+	Player(final Board board) {
 		this.board = board;
 		this.playerKing = findKing();
-		this.inCheck = !this.attacksOnTile(this.playerKing.getPosition(), opponentMoves).isEmpty();
-		Collection<Move> castles = calculateCastles(legalMoves, opponentMoves);
-		this.legalMoves = ImmutableList.copyOf(Iterables.concat(legalMoves, castles));
-		
-		this.canKingsideCastle = castles.size() >= 1;
-		this.canQueensideCastle = castles.size() == 2;
-		this.mobility = this.legalMoves.size();
+		this.inCheck = board.isAttacked(this.playerKing.getPosition(), getSide().getOpponentSide());
 		this.pieces = this.getActivePieces().size();
-		// calculateAttacksOnTile takes in board64 position
+	}
+
+	/*
+	 * Generates the psuedo-legal moves of every active piece plus the castles.
+	 */
+
+	private Collection<Move> calculateLegalMoves() {
+		final ImmutableList.Builder<Move> legal = ImmutableList.builder();
+		for (final Piece piece : getActivePieces()) {
+			legal.addAll(piece.calculateLegalMoves(this.board));
+		}
+		final Collection<Move> castles = calculateCastles();
+		for (final Move castle : castles) {
+			if (castle instanceof Move.KingsideCastleMove) {
+				this.canKingsideCastle = true;
+			} else {
+				this.canQueensideCastle = true;
+			}
+		}
+		return legal.addAll(castles).build();
 	}
 
 	/*
@@ -100,11 +118,14 @@ public abstract class Player {
 	 */
 
 	public Collection<Move> getLegalMoves() {
+		if (this.legalMoves == null) {
+			this.legalMoves = calculateLegalMoves();
+		}
 		return this.legalMoves;
 	}
 	
 	public int mobility() {
-		return this.mobility;
+		return getLegalMoves().size();
 	}
 	
 	public int numPieces() {
@@ -112,7 +133,7 @@ public abstract class Player {
 	}
 
 	public boolean isLegal(final Move move) {
-		return this.legalMoves.contains(move);
+		return getLegalMoves().contains(move);
 	}
 
 	public boolean inCheck() {
@@ -131,13 +152,26 @@ public abstract class Player {
 	}
 
 	public boolean hasEscapeMoves() {
-		for (final Move move : this.legalMoves) {
-			final MoveTransition transition = makeMove(move);
-			if (transition.getMoveStatus() == MoveStatus.DONE) { 
-				return true;
-			}
+		return !getSafeMoves().isEmpty();
+	}
+
+	/*
+	 * Returns whether a move from getLegalMoves() would leave the king in
+	 * check. The answer comes from SearchBoard's pin- and check-aware
+	 * generator, so no board has to be built for the move.
+	 */
+
+	public boolean leavesKingInCheck(final Move move) {
+		return !getSafeMoves().contains(PackedMove.fromMove(move));
+	}
+
+	private MoveList getSafeMoves() {
+		if (this.safeMoves == null) {
+			final MoveList moves = new MoveList();
+			new SearchBoard(this.board).generateLegalMoves(moves);
+			this.safeMoves = moves;
 		}
-		return false;
+		return this.safeMoves;
 	}
 
 	public boolean inStalemate() {
@@ -149,10 +183,12 @@ public abstract class Player {
 	}
 
 	public boolean canKingsideCastle() {
+		getLegalMoves();
 		return this.canKingsideCastle;
 	}
 
 	public boolean canQueensideCastle() {
+		getLegalMoves();
 		return this.canQueensideCastle;
 	}
 
@@ -167,32 +203,11 @@ public abstract class Player {
 		if (move.getDestination() /* 21 - 98 */ == BoardUtils.board64[this.getOpponent().getKing().getPosition()]) {
 			return new MoveTransition(this.board, move, MoveStatus.KING_CAPTURE);
 		}
-		// if move is legal
-		final Board transition = move.execute();
-
-		// calculates attacks on king tile. Note that
-		// currentPlayer().getOpponent() is used because execute()
-		// switches the currentPlayer to the other Side.
-		// In other words, will we be in check after move.execute()?
-		final Collection<Move> kingAttacks = this.attacksOnTile(
-				transition.currentPlayer().getOpponent().getKing().getPosition(),
-				transition.currentPlayer().getLegalMoves());
-		if (!kingAttacks.isEmpty()) { // if king would be under attack
+		// a move that leaves the king under attack is turned down before it is executed
+		if (leavesKingInCheck(move)) {
 			return new MoveTransition(this.board, move, MoveStatus.LEAVES_PLAYER_IN_CHECK);
 		}
-		//calculate hash
-		long newHash = transition.getHash(); //hash is updated in move.execute();
-		int score = EVALUATOR.evaluate(transition, 1); //maybe don't call SEE everytime a node is reached?
-		//populate table
-		if (!Table.SEEN_POSITIONS.containsKey(newHash)) {
-			Table.SEEN_POSITIONS.put(newHash, score); 
-		} else { //table.containsKey(newHash)
-			if (score != Table.SEEN_POSITIONS.get(newHash)) {
-				Table.SEEN_POSITIONS.put(newHash, score);
-				Table.incrementCollisions();
-			}
-		}
-		return new MoveTransition(transition, move, MoveStatus.DONE);
+		return new MoveTransition(move.execute(), move, MoveStatus.DONE);
 	}
 
 	public abstract Collection<Piece> getActivePieces();
@@ -204,6 +219,6 @@ public abstract class Player {
 	/*
 	 * Player generates its own castle-moves.
 	 */
-	protected abstract Collection<Move> calculateCastles(Collection<Move> legalMoves, Collection<Move> opponentMoves);
+	protected abstract Collection<Move> calculateCastles();
 
 }
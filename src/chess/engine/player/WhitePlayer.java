@@ -21,9 +21,8 @@ import chess.engine.pieces.Piece.PieceType;
 
 public class WhitePlayer extends Player {
 
-	public WhitePlayer(final Board board, final Collection<Move> whiteLegalMoves,
-			final Collection<Move> blackLegalMoves) {
-		super(board, whiteLegalMoves, blackLegalMoves);
+	public WhitePlayer(final Board board) {
+		super(board);
 	}
 
 	@Override
@@ -42,22 +41,21 @@ public class WhitePlayer extends Player {
 	}
 
 	@Override
-	protected Collection<Move> calculateCastles(final Collection<Move> legalMoves,
-			final Collection<Move> opponentMoves) {
+	protected Collection<Move> calculateCastles() {
 		final List<Move> kingCastles = new ArrayList<>();
 		// castle conditions:
 		// 1. not in check
-		// 2. K + R have not moved //TODO: fix hasMoved!!!
+		// 2. K + R have not moved (the board's castling rights)
 		// Note: playerKing.getPosition() == 60
-		if (!this.playerKing.hasMoved() && !this.inCheck() && this.playerKing.getPosition() == 60) {
+		if (!this.inCheck() && this.playerKing.getPosition() == 60) {
 			// O-O; 61 and 62 are true 0 - 64 coordinates that correspond to f1
 			// and g1
-			if (!this.board.getTile(61).tileIsOccupied() && !this.board.getTile(62).tileIsOccupied()) {
+			if (this.board.hasCastlingRight(BoardUtils.WHITE_KINGSIDE) && !this.board.getTile(61).tileIsOccupied()
+					&& !this.board.getTile(62).tileIsOccupied()) {
 				final Tile rookTile = this.board.getTile(63); // 63 = h1
-				if (rookTile.tileIsOccupied() && !rookTile.getPiece().hasMoved()
-						&& rookTile.getPiece().getType() == PieceType.ROOK) {
-					if (this.attacksOnTile(61, opponentMoves).isEmpty()
-							&& this.attacksOnTile(62, opponentMoves).isEmpty()) { // 3.
+				if (rookTile.tileIsOccupied() && rookTile.getPiece().getType() == PieceType.ROOK) {
+					if (!this.board.isAttacked(61, Side.BLACK)
+							&& !this.board.isAttacked(62, Side.BLACK)) { // 3.
 																					// can't
 																					// castle
 																					// through
@@ -70,13 +68,13 @@ public class WhitePlayer extends Player {
 				}
 			}
 			// O-O-O
-			if (!this.board.getTile(59).tileIsOccupied() && !this.board.getTile(58).tileIsOccupied()
+			if (this.board.hasCastlingRight(BoardUtils.WHITE_QUEENSIDE) && !this.board.getTile(59).tileIsOccupied()
+					&& !this.board.getTile(58).tileIsOccupied()
 					&& !this.board.getTile(57).tileIsOccupied()) {
 				final Tile rookTile = this.board.getTile(56); // 63 = h1
-				if (rookTile.tileIsOccupied() && !rookTile.getPiece().hasMoved()
-						&& rookTile.getPiece().getType() == PieceType.ROOK) {
-					if (this.attacksOnTile(59, opponentMoves).isEmpty()
-							&& this.attacksOnTile(58, opponentMoves).isEmpty()) { // 3.
+				if (rookTile.tileIsOccupied() && rookTile.getPiece().getType() == PieceType.ROOK) {
+					if (!this.board.isAttacked(59, Side.BLACK)
+							&& !this.board.isAttacked(58, Side.BLACK)) { // 3.
 																					// can't
 																					// castle
 																					// through
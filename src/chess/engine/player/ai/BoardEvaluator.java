@@ -1,6 +1,7 @@
 package chess.engine.player.ai;
 
 import chess.engine.board.Board;
+import chess.engine.board.SearchBoard;
 
 public interface BoardEvaluator {
 
@@ -8,4 +9,13 @@ public interface BoardEvaluator {
 
 	int quickEvaluate(Board board);
 
+	int evaluate(SearchBoard board);
+
+	/*
+	 * The terms of a search position's evaluation that depend on the game ply
+	 * the search started from, which evaluate(SearchBoard) leaves out so that
+	 * its score belongs to the position alone and can be cached.
+	 */
+	int evaluateGamePly(SearchBoard board);
+
 }
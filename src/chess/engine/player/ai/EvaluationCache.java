@@ -0,0 +1,75 @@
+package chess.engine.player.ai;
+
+import java.util.Arrays;
+
+/*
+ * Fixed-size cache of static evaluations, so a leaf reached again (in a later iteration, through a
+ * transposition or by a sibling subtree) is not evaluated again. Like TranspositionTable it is one
+ * long[] allocated up front and sized in MB, and it can be shared by search threads without locks:
+ * each entry is two longs, the key XORed with the data, then the data, and an entry torn by two threads
+ * writing at once reads as a miss.
+ *
+ * There is one entry per slot and a store always replaces it: an evaluation costs the same wherever
+ * it was made, so there is nothing to prefer.
+ *
+ * The data holds the score in its low 32 bits and a bit marking the entry as used, so an empty entry
+ * never matches. Entries are keyed by the Zobrist hash alone: the cached score leaves out the terms that
+ * depend on the game ply or on how the king got where it is (see BoardEvaluator.evaluateGamePly()), so
+ * a cache can be kept from one move to the next like a transposition table.
+ */
+
+public final class EvaluationCache {
+
+	public static final int DEFAULT_SIZE = 16; // MB
+
+	private static final int LONGS_PER_ENTRY = 2;
+	private static final int BYTES_PER_ENTRY = LONGS_PER_ENTRY * Long.BYTES;
+	private static final long USED = 1L << 32;
+	private static final long SCORE_MASK = USED - 1;
+
+	private final long[] entries;
+	private final int entryMask;
+
+	/*
+	 * CONSTRUCTOR: size in MB, rounded down to a power of two entries.
+	 */
+
+	public EvaluationCache(final int size) {
+		final long count = (long) size * 1024 * 1024 / BYTES_PER_ENTRY;
+		if (count < 1) {
+			throw new RuntimeException("Evaluation cache size must be at least 1 MB!");
+		}
+		final int entryCount = Integer.highestOneBit((int) Math.min(count, 1 << 26));
+		this.entries = new long[entryCount * LONGS_PER_ENTRY];
+		this.entryMask = entryCount - 1;
+	}
+
+	public void clear() {
+		Arrays.fill(this.entries, 0);
+	}
+
+	/*
+	 * Returns the data cached for the key, or 0 if there is none. Read the
+	 * score with getScore().
+	 */
+	public long probe(final long key) {
+		final int entry = entryIndex(key);
+		final long data = this.entries[entry + 1];
+		return (this.entries[entry] ^ data) == key && data != 0 ? data : 0;
+	}
+
+	public void store(final long key, final int score) {
+		final long data = USED | (score & SCORE_MASK);
+		final int entry = entryIndex(key);
+		this.entries[entry] = key ^ data;
+		this.entries[entry + 1] = data;
+	}
+
+	public static int getScore(final long data) {
+		return (int) data;
+	}
+
+	private int entryIndex(final long key) {
+		return ((int) (key ^ (key >>> 32)) & this.entryMask) * LONGS_PER_ENTRY;
+	}
+}
@@ -1,22 +1,19 @@
 package chess.engine.player.ai;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
+import java.util.Deque;
 import java.util.Observable;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
-import com.google.common.collect.ImmutableList;
-
-import chess.engine.Side;
 import chess.engine.board.Board;
 import chess.engine.board.Move;
-import chess.engine.board.Move.MoveFactory;
-import chess.engine.player.MoveTransition;
-import chess.engine.player.Player;
-import chess.gui.Table;
+import chess.engine.board.MoveList;
+import chess.engine.board.PackedMove;
+import chess.engine.board.SearchBoard;
+import chess.engine.board.StaticExchange;
+import chess.engine.pieces.Piece.PieceType;
 
 public class MiniMax extends Observable implements MoveStrategy {
 
@@ -24,23 +21,123 @@ public class MiniMax extends Observable implements MoveStrategy {
 	private long boardsEvaluated;
 	private int evaldepth;
 	private int nodesCached;
-	private static Move[][] principalVariation;
+	private int researches; // root searches repeated because the score fell outside the aspiration window
+	private int nullMoveCutoffs;
+	private int frontierPrunes; // moves and nodes dropped by futility pruning and razoring
+
+	// frontier pruning margins by remaining depth (index 0 unused)
+	private int[] futilityMargins = { 0, 200, 300, 500 }; // depth 3 is extended futility
+	private int[] razorMargins = { 0, 300, 500 };
+	private boolean lateMoveReductions = true;
+	private final int[][] principalVariation; // triangular: row ply holds the PV from ply on
+	private final int[] pvLength;
 	
-	private static final int WINDOW = 100;
+	private static final int MAX_PLY = 128;
+	private static final int MATE_SCORE = 1000000; // minus the ply it is delivered at
+	private static final int INFINITY = MATE_SCORE + 1; // unlike Integer.MIN_VALUE, safe to negate
+	private static final int NO_SCORE = Integer.MIN_VALUE; // no transposition table cutoff
+	private static final int STABLE_ITERATIONS = 4; // iterations with the same best move before stopping early
+	private static final int TIME_CHECK_NODES = 2048; // power of two
+
+	public static final int MAX_DEPTH = 64;
+	public static final int WINDOW = 100; // half the aspiration window
+
+	private static final int NULL_MOVE_MIN_DEPTH = 2;
+	private static final int LMR_MIN_DEPTH = 3;
+	private static final int LMR_MIN_MOVES = 3; // the first moves of a node are never reduced
+	// late move reductions by remaining depth and move number: ln(depth) * ln(move number) / 2.25, rounded
+	private static final int[][] LMR_REDUCTIONS = new int[MAX_DEPTH + 1][MoveList.MAX_MOVES];
+	private static final int DELTA_MARGIN = 200; // a capture must come this close to alpha to be searched
+	private static final int[] PIECE_VALUES = new int[PieceType.values().length]; // by piece type
+
+	static {
+		for (final PieceType type : PieceType.values()) {
+			PIECE_VALUES[type.getEnum()] = type.getValue();
+		}
+		for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+			for (int moveNumber = 1; moveNumber < MoveList.MAX_MOVES; moveNumber++) {
+				LMR_REDUCTIONS[depth][moveNumber] = (int) Math.round(Math.log(depth) * Math.log(moveNumber) / 2.25);
+			}
+		}
+	}
+
+	private SearchBoard searchBoard;
+	private final MovePicker[] movePickers; // one per ply
+	private final SearchHistory searchHistory; // killers, history and countermoves of this search
+	private final int[] movesMade; // the move made at each ply, NONE for a null move
+	private final int[][] quietsSearched; // per ply, the quiet moves searched so far at the node
+	private final MoveList[] quiescenceMoves; // one per ply
+	private final TranspositionTable transpositionTable;
+	private final EvaluationCache evaluationCache; // shared with the helpers and root tasks
+	private long evaluationProbes;
+	private long evaluationHits;
+
+	private final long thinkingTime; // ms per move, or 0 to always search to evaldepth
+	private long hardDeadline;
+	private boolean stopped;
+	private int rootBest;
+	private int finalScore; // of the last execute(), for the side to move
+
+	// Lazy SMP: helpers search the same root on threads of their own, sharing only the transposition table
+	// and the evaluation cache
+	private MiniMax[] helpers = new MiniMax[0];
+	private int helperId; // 0 for the MiniMax that plays the move
+	private volatile boolean aborted; // set to stop a helper
+
+	// deterministic mode: root moves after the first are split across a fork-join pool (see splitRoot())
+	private static final int ROOT_TASK_TABLE_SIZE = 1; // MB, private to each root task
+	private boolean deterministic;
+	private int threads = 1;
+	private ForkJoinPool rootPool; // made by the first search that splits across threads, then kept
+	private Board rootBoard;
+	private TranspositionTable sharedTable; // a root task's read-only table behind its private one
+	private final Deque<MiniMax> rootWorkers = new ConcurrentLinkedDeque<MiniMax>(); // idle, kept across searches
 
 	public MiniMax(final int depth) {
+		this(depth, 0, new TranspositionTable(TranspositionTable.DEFAULT_SIZE));
+	}
+
+	/*
+	 * Searches for at most thinkingTime ms (0 for no limit) and evaldepth
+	 * plies, with a transposition table that outlives this MiniMax, so the
+	 * results of one move's search are still there for the next.
+	 */
+
+	public MiniMax(final int depth, final long thinkingTime, final TranspositionTable transpositionTable) {
+		this(depth, thinkingTime, transpositionTable, new EvaluationCache(EvaluationCache.DEFAULT_SIZE));
+	}
+
+	/*
+	 * Like the above, with an evaluation cache that outlives this MiniMax as
+	 * well.
+	 */
+
+	public MiniMax(final int depth, final long thinkingTime, final TranspositionTable transpositionTable,
+			final EvaluationCache evaluationCache) {
+		if (depth < 1 || depth > MAX_DEPTH) {
+			throw new RuntimeException("Search depth must be between 1 and " + MAX_DEPTH + "!");
+		}
+		this.thinkingTime = thinkingTime;
+		this.transpositionTable = transpositionTable;
+		this.evaluationCache = evaluationCache;
 		this.boardEvaluator = new StandardBoardEvaluator();
 		this.evaldepth = depth;
 		this.boardsEvaluated = 0;
 		this.nodesCached = 0;
-		this.principalVariation = triangularArray(this.evaldepth);
+		this.principalVariation = triangularArray(MAX_PLY);
+		this.pvLength = new int[MAX_PLY];
+		this.movePickers = MovePicker.createStack(MAX_PLY);
+		this.searchHistory = new SearchHistory(MAX_PLY);
+		this.movesMade = new int[MAX_PLY];
+		this.quietsSearched = new int[MAX_PLY][MoveList.MAX_MOVES];
+		this.quiescenceMoves = MoveList.createStack(MAX_PLY);
 
 	}
 
-	private static Move[][] triangularArray(int depth) {
-		Move[][] temp = new Move[depth][];
+	private static int[][] triangularArray(int depth) {
+		int[][] temp = new int[depth][];
 		for (int i = 0; i < depth; i++) {
-			temp[i] = new Move[i + 1];
+			temp[i] = new int[depth - i];
 		}
 		return temp;
 	}
@@ -62,198 +159,908 @@ public class MiniMax extends Observable implements MoveStrategy {
 		return this.nodesCached;
 	}
 
+	public int getResearches() {
+		return this.researches;
+	}
+
+	public int getFrontierPrunes() {
+		return this.frontierPrunes;
+	}
+
+	/*
+	 * Score of the move the last execute() chose, in centipawns for the side
+	 * that made it.
+	 */
+	public int getFinalScore() {
+		return this.finalScore;
+	}
+
+	/*
+	 * Sets the futility margins for depth 1 upward: a quiet move at a node
+	 * whose static evaluation plus the margin for its depth cannot reach alpha
+	 * is not searched. The number of margins is the deepest depth pruned; the
+	 * last one is usually larger (extended futility).
+	 */
+	public void setFutilityMargins(final int... margins) {
+		this.futilityMargins = withUnusedZero(margins);
+	}
+
+	/*
+	 * Sets the razoring margins for depth 1 upward: a node whose static
+	 * evaluation plus the margin for its depth cannot reach alpha is only
+	 * searched by quiesce(), and given up on if that confirms it. Razoring
+	 * only happens at depths futility pruning covers too.
+	 */
+	public void setRazorMargins(final int... margins) {
+		this.razorMargins = withUnusedZero(margins);
+	}
+
+	/*
+	 * Turns late move reductions (see reduction()) on or off. They are on
+	 * unless turned off.
+	 */
+	public void setLateMoveReductions(final boolean lateMoveReductions) {
+		this.lateMoveReductions = lateMoveReductions;
+	}
+
 	/*
-	 * Wrapper function for recursive minimax search.
-	 * TODO: aspiration windows, quiesence search via iterative deepening, PV search
-	 * possible future TODO: null move pruning via zugzwang heuristic, futility pruning (max possible eval change)
+	 * Sets the number of threads to search with, the calling one included.
+	 * Every thread past the first runs a helper search (see execute()); the
+	 * helpers are only made once a search needs them.
+	 */
+	public void setThreads(final int threads) {
+		if (threads < 1) {
+			throw new RuntimeException("MiniMax needs at least one thread!");
+		}
+		this.threads = threads;
+		if (this.rootPool != null && this.rootPool.getParallelism() != threads) {
+			this.rootPool.shutdown();
+			this.rootPool = null;
+		}
+	}
+
+	/*
+	 * In deterministic mode the threads split the root moves between them
+	 * instead of running helper searches, so that the best move and score of
+	 * every depth are the same whatever the number of threads (see
+	 * splitRoot()).
+	 */
+	public void setDeterministic(final boolean deterministic) {
+		this.deterministic = deterministic;
+	}
+
+	private static int[] withUnusedZero(final int[] margins) {
+		final int[] byDepth = new int[margins.length + 1];
+		System.arraycopy(margins, 0, byDepth, 1, margins.length);
+		return byDepth;
+	}
+
+	/*
+	 * Wrapper function for recursive minimax search. The search runs on one
+	 * SearchBoard, making and unmaking packed moves; only the chosen move is
+	 * converted back to a Move of the given board.
+	 *
+	 * The search deepens iteratively, from depth 1 up to evaldepth. Each
+	 * finished iteration leaves its results in the transposition table and
+	 * puts its best move first at the root, so the next iteration is ordered
+	 * by the previous one. With a thinking time, no new iteration starts after
+	 * the soft deadline (or after a quarter of the time once the best move has
+	 * not changed for STABLE_ITERATIONS iterations), and an iteration still
+	 * running at the hard deadline is cut short. Depth 1 always finishes, so
+	 * there is always a move.
+	 *
+	 * Past the nominal depth, quiesce() keeps searching captures until the
+	 * position is quiet.
+	 *
+	 * From depth 2 on, each iteration starts with an aspiration window of
+	 * WINDOW around the previous score (see aspirationSearch()).
+	 *
+	 * With more than one thread (see setThreads()), helper threads search the
+	 * same root at the same time ("Lazy SMP"). Each helper is a MiniMax of its
+	 * own, with its own SearchBoard, SearchHistory and move pickers; only the
+	 * transposition table and the evaluation cache are shared, so what one
+	 * thread stores cuts short the searches of the others. Helpers start at staggered depths and with a
+	 * different root move first, so they do not all search the same tree in
+	 * step. They run until this thread is done, and the move played is this
+	 * thread's. In deterministic mode there are no helpers; the threads share
+	 * out the root moves instead (see splitRoot()).
 	 */
 
 	@Override
 	public Move execute(Board board) {
 		final long startTime = System.currentTimeMillis();
-		final Player currentPlayer = board.currentPlayer();
-		final Side currentSide = board.currentPlayer().getSide();
-		Move best = MoveFactory.getNullMove();
-		int alpha = Integer.MIN_VALUE;
-		int beta = Integer.MAX_VALUE;
-		System.out.println("BOTVinnik is thinking using MINIMAX with depth = " + evaldepth);
-
-
-		int counter = 1;
-		//TODO: iterative deepening to populate tables
-		Collection<Move> sorted = sort(currentPlayer.getLegalMoves(), board);
-		
-		int numMoves = sorted.size();
-		for (final Move move : sorted) {
-			final MoveTransition moveTransition = currentPlayer.makeMove(move);	
-			this.boardsEvaluated++;
-			System.out.println("\t(" + this.toString() + ") Analyzing move: " + move + " (" + counter + "/" + numMoves + ")");
-			int current = currentSide.isWhite() ? min(moveTransition.getBoard(), this.evaldepth - 1, alpha, beta)
-					: max(moveTransition.getBoard(), this.evaldepth - 1, alpha, beta);
-			if (currentSide.isWhite() && current > alpha) {
-				alpha = current;
-				best = move;
-				if (moveTransition.getBoard().blackPlayer().inCheckmate())
-					break;
-			} else if (currentSide.isBlack() && current < beta) {
-				beta = current;
-				best = move;
-				if (moveTransition.getBoard().whitePlayer().inCheckmate())
-					break;
-			}
+		final boolean white = board.currentPlayer().getSide().isWhite();
+		this.searchBoard = new SearchBoard(board);
+		this.rootBoard = board;
+		this.transpositionTable.newSearch();
+		this.searchHistory.newSearch();
+		this.stopped = false;
+		resetCounters();
+		this.hardDeadline = Long.MAX_VALUE;
+		final long softDeadline = this.thinkingTime > 0 ? startTime + this.thinkingTime / 2 : Long.MAX_VALUE;
+		final long stableDeadline = this.thinkingTime > 0 ? startTime + this.thinkingTime / 4 : Long.MAX_VALUE;
+		System.out.println("BOTVinnik is thinking using MINIMAX with depth = " + evaldepth
+				+ (this.thinkingTime > 0 ? " and " + this.thinkingTime + "ms" : "")
+				+ (this.threads > 1 ? " on " + this.threads + " threads" : "")
+				+ (this.deterministic ? " (deterministic)" : ""));
 
-			if (counter > numMoves) throw new RuntimeException("# of analyzed moves exceeds # of legal moves!");
-			counter++;
-			setChanged();
-			notifyObservers();
+		final MoveList rootMoves = orderedRootMoves();
+		final Thread[] helperThreads = this.deterministic ? new Thread[0] : startHelpers(board);
+		if (this.deterministic && this.threads > 1 && this.rootPool == null) {
+			this.rootPool = new ForkJoinPool(this.threads);
+		}
 
+		int best = PackedMove.NONE;
+		int bestScore = 0;
+		int stableIterations = 0;
+		for (int depth = 1; depth <= this.evaldepth && !rootMoves.isEmpty(); depth++) {
+			if (depth > 1 && this.thinkingTime > 0) {
+				this.hardDeadline = startTime + this.thinkingTime;
+			}
+			final int score = aspirationSearch(rootMoves, depth, bestScore);
+			if (this.rootBest != PackedMove.NONE) {
+				stableIterations = this.rootBest == best ? stableIterations + 1 : 0;
+				best = this.rootBest;
+				bestScore = score;
+				moveToFront(rootMoves, best);
+			}
+			if (this.stopped) {
+				System.out.println("\tDepth " + depth + " cut short at the hard deadline");
+				break;
+			}
+			storeScore(depth, best, bestScore, TranspositionTable.EXACT, 0);
+			System.out.println("\tDepth " + depth + ": " + principalVariation() + " (score: "
+					+ (white ? bestScore : -bestScore) / 100.0 + ", nodes: " + this.boardsEvaluated + ", "
+					+ (System.currentTimeMillis() - startTime) + "ms)");
+			if (Math.abs(bestScore) > MATE_SCORE - MAX_PLY) {
+				break; // a forced mate is not going to change with more depth
+			}
+			final long now = System.currentTimeMillis();
+			if (now >= softDeadline || (stableIterations >= STABLE_ITERATIONS && now >= stableDeadline)) {
+				break;
+			}
 		}
+		stopHelpers(helperThreads);
 
-		
 		final long executionTime = System.currentTimeMillis() - startTime;
 		System.out.println("Time taken to find best move: " + executionTime + "ms");
 		System.out.println("# of nodes evaluated: " + this.getBoardsEvaluted());
+		if (this.helpers.length > 0 && !this.deterministic) {
+			long helperNodes = 0;
+			for (final MiniMax helper : this.helpers) {
+				helperNodes += helper.getBoardsEvaluted();
+			}
+			System.out.println("# of nodes evaluated by helper threads: " + helperNodes);
+		}
 		System.out.println("# of cached positions retreived: " + this.getNodesCached());
-		System.out.println("# of collisions: " + Table.getCollisions());
-		System.out.println("Final move score: " + (double) (currentSide.isWhite() ? alpha / 100.0 : beta / 100.0));
-		System.out.println("Final PV: " + Arrays.toString(principalVariation));
-		return best;
+		System.out.println("# of aspiration window re-searches: " + this.getResearches());
+		System.out.println("# of null move cutoffs: " + this.nullMoveCutoffs);
+		System.out.println("# of futility and razoring prunes: " + this.frontierPrunes);
+		System.out.println("# of transposition table entries used (permille): " + this.transpositionTable.usage());
+		System.out.println("# of evaluation cache hits: " + this.evaluationHits + " of " + this.evaluationProbes
+				+ " (" + (this.evaluationProbes == 0 ? 0 : 100 * this.evaluationHits / this.evaluationProbes) + "%)");
+		System.out.println("Final move score: " + (white ? bestScore : -bestScore) / 100.0);
+		this.finalScore = bestScore;
+		System.out.println("Final PV: " + principalVariation());
+		return PackedMove.toMove(board, best);
 	}
-	
 
-	private static String score(final Player current, final int highest, final int lowest) {
-		if (current.getSide().isWhite()) {
-			return "[score: " + highest + "]";
-		} else if (current.getSide().isBlack()) {
-			return "[score: " + lowest + "]";
+	/*
+	 * The legal moves of this.searchBoard, ordered once, with the best move of
+	 * an earlier search of this position first.
+	 */
+	private MoveList orderedRootMoves() {
+		final MoveList rootMoves = new MoveList();
+		this.searchBoard.generateLegalMoves(rootMoves);
+		MovePicker.scoreMoves(this.searchBoard, rootMoves,
+				TranspositionTable.getMove(this.transpositionTable.probe(this.searchBoard.getHash())),
+				this.searchHistory, 0);
+		for (int i = 0; i < rootMoves.size(); i++) {
+			rootMoves.pickBest(i);
 		}
-		throw new RuntimeException("Invalid color!");
+		return rootMoves;
 	}
 
 	/*
-	 * Co-recursive minimax implementation.
-	 * 
-	 * @param alpha: best move evaluation must be better than alpha - maximum
-	 * lower bound
-	 * @param beta: best move evaluation must be worse than beta - minimum upper
-	 * bound
+	 * One iteration of iterative deepening. From depth 2 on, the root is
+	 * searched with a window of WINDOW around the previous score. A score
+	 * outside the window is only a bound, so the iteration is searched again
+	 * with that side of the window widened, by twice as much each time. Leaves
+	 * the best move in rootBest, or NONE if the search was stopped before one
+	 * was found or in the middle of a fail low, which says nothing about it.
 	 */
-
-	public int min(final Board board, final int depth, int alpha, int beta) {
-		this.boardsEvaluated++;
-		if (depth == 0 || gameOver(board)) {	
-			long key = board.getHash();
-			if (Table.SEEN_POSITIONS.containsKey(key)) {
-				incrementNodesCached();
-				return Table.SEEN_POSITIONS.get(key);
+	private int aspirationSearch(final MoveList rootMoves, final int depth, final int previousScore) {
+		int delta = WINDOW;
+		int alpha = depth > 1 ? Math.max(previousScore - delta, -INFINITY) : -INFINITY;
+		int beta = depth > 1 ? Math.min(previousScore + delta, INFINITY) : INFINITY;
+		while (true) {
+			final int score = searchRoot(rootMoves, depth, alpha, beta);
+			if (this.stopped) {
+				if (score <= alpha) {
+					this.rootBest = PackedMove.NONE;
+				}
+				return score;
+			}
+			delta += delta;
+			if (score <= alpha && alpha > -INFINITY) { // fail low: every move may be worse than we thought
+				alpha = Math.max(score - delta, -INFINITY);
+			} else if (score >= beta && beta < INFINITY) { // fail high: the new best move goes first
+				beta = Math.min(score + delta, INFINITY);
+				moveToFront(rootMoves, this.rootBest);
 			} else {
-				return this.boardEvaluator.evaluate(board, 1);
+				return score;
 			}
+			this.researches++;
+		}
+	}
+
+	/*
+	 * Starts every helper on its own thread, searching the given board. The
+	 * helpers are made by the first search that runs them and kept for the
+	 * searches after it.
+	 */
+	private Thread[] startHelpers(final Board board) {
+		if (this.helpers.length != this.threads - 1) {
+			this.helpers = new MiniMax[this.threads - 1];
+			for (int i = 0; i < this.helpers.length; i++) {
+				this.helpers[i] = new MiniMax(this.evaldepth, 0, this.transpositionTable, this.evaluationCache);
+				this.helpers[i].helperId = i + 1;
+			}
+		}
+		final Thread[] threads = new Thread[this.helpers.length];
+		for (int i = 0; i < this.helpers.length; i++) {
+			final MiniMax helper = this.helpers[i];
+			helper.futilityMargins = this.futilityMargins;
+			helper.razorMargins = this.razorMargins;
+			helper.lateMoveReductions = this.lateMoveReductions;
+			helper.aborted = false;
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					helper.helperSearch(board);
+				}
+			}, "Search helper " + helper.helperId);
+			threads[i].setDaemon(true);
+			threads[i].start();
+		}
+		return threads;
+	}
 
+	private void stopHelpers(final Thread[] threads) {
+		for (final MiniMax helper : this.helpers) {
+			helper.aborted = true;
 		}
-		int lowest = beta; //This is Integer.MAX_VALUE in the first call.
-		Collection<Move> sorted = sort(board.currentPlayer().getLegalMoves(), board);
+		try {
+			for (final Thread thread : threads) {
+				thread.join();
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/*
+	 * A helper's search: iterative deepening on the same root until it is
+	 * aborted or reaches evaldepth, with no output. Odd helpers skip depth 1
+	 * and so stay an iteration ahead of the even ones, and each helper puts a
+	 * different root move first.
+	 */
+	private void helperSearch(final Board board) {
+		this.searchBoard = new SearchBoard(board);
+		this.searchHistory.newSearch();
+		this.stopped = false;
+		resetCounters();
+		this.hardDeadline = Long.MAX_VALUE;
+		final MoveList rootMoves = orderedRootMoves();
+		if (rootMoves.isEmpty()) {
+			return;
+		}
+		moveToFront(rootMoves, rootMoves.get(this.helperId % rootMoves.size()));
+		int bestScore = 0;
+		for (int depth = 1 + (this.helperId & 1); depth <= this.evaldepth; depth++) {
+			final int score = aspirationSearch(rootMoves, depth, bestScore);
+			if (this.stopped) {
+				return;
+			}
+			bestScore = score;
+			moveToFront(rootMoves, this.rootBest);
+			if (Math.abs(bestScore) > MATE_SCORE - MAX_PLY) {
+				return;
+			}
+		}
+	}
+
+	/*
+	 * Searches every root move to the given depth, leaving the best one in
+	 * rootBest and returning its score for the side to move. If the hard
+	 * deadline passes, the root moves searched so far still count; rootBest
+	 * is NONE if there are none.
+	 */
+	private int searchRoot(final MoveList rootMoves, final int depth, int alpha, final int beta) {
+		int bestScore = -INFINITY;
+		this.rootBest = PackedMove.NONE;
+		for (int i = 0; i < rootMoves.size(); i++) {
+			if (i > 0 && this.deterministic) {
+				return splitRoot(rootMoves, depth, alpha, beta, bestScore);
+			}
+			final int move = rootMoves.get(i);
+			this.movesMade[0] = move;
+			this.searchBoard.make(move);
+			final int score = searchMove(i == 0, depth - 1, alpha, beta, 1);
+			this.searchBoard.unmake(move);
+			if (this.stopped) {
+				break;
+			}
+			if (score > bestScore) {
+				bestScore = score;
+				this.rootBest = move;
+				updatePrincipalVariation(0, move);
+				if (score > alpha) {
+					alpha = score;
+				}
+			}
+			if (alpha >= beta) {
+				break;
+			}
+			setChanged();
+			notifyObservers();
+		}
+		return bestScore;
+	}
+
+	/*
+	 * Deterministic root splitting. The first root move has been searched
+	 * serially by searchRoot(); the others are searched as independent tasks
+	 * against the bound it set, on the root pool, or one after the other
+	 * with a single thread.
+	 *
+	 * Each task runs on an idle worker MiniMax (see rootWorker()) that starts
+	 * from a copy of this search's history, and probes a private transposition
+	 * table (cleared for every task) in front of this search's one, which
+	 * nothing writes to while tasks run. A task's result therefore depends only on
+	 * its move and the bound, not on which thread ran it or when. The results
+	 * are then reduced in root move order, the earlier move winning a tie, so
+	 * the best move and score are the same for any number of threads.
+	 */
+	private int splitRoot(final MoveList rootMoves, final int depth, int alpha, final int beta, int bestScore) {
+		final RootTask[] tasks = new RootTask[rootMoves.size() - 1];
+		for (int i = 0; i < tasks.length; i++) {
+			tasks[i] = new RootTask(rootMoves.get(i + 1), depth, alpha, beta);
+		}
+		if (this.threads == 1) {
+			for (final RootTask task : tasks) {
+				task.compute();
+				if (task.cutShort) {
+					break;
+				}
+			}
+		} else {
+			this.rootPool.invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
 
-		for (final Move move : sorted) {
-			final MoveTransition moveTransition = board.currentPlayer().makeMove(move);
-			//lowest = Math.min(lowest, max(moveTransition.getBoard(), depth - 1, alpha, lowest)); 
-			int score = max(moveTransition.getBoard(), depth - 1, alpha, lowest);
-			if (score < lowest) {
-				lowest = score;
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
+			});
+		}
+		for (final RootTask task : tasks) {
+			this.boardsEvaluated += task.nodes;
+			this.nodesCached += task.nodesCached;
+			this.nullMoveCutoffs += task.nullMoveCutoffs;
+			this.frontierPrunes += task.frontierPrunes;
+			this.evaluationProbes += task.evaluationProbes;
+			this.evaluationHits += task.evaluationHits;
+		}
+		for (final RootTask task : tasks) {
+			if (task.cutShort) {
+				this.stopped = true;
+				break;
+			}
+			if (task.score > bestScore) {
+				bestScore = task.score;
+				this.rootBest = task.move;
+				this.principalVariation[0][0] = task.move;
+				System.arraycopy(task.principalVariation, 0, this.principalVariation[0], 1, task.principalVariation.length);
+				this.pvLength[0] = task.principalVariation.length + 1;
+				if (bestScore > alpha) {
+					alpha = bestScore;
+				}
 			}
-			if (alpha >= lowest) { //fail-low: less than the maximum lower bound — player can avoid this	
-				return alpha; 
+			if (alpha >= beta) {
+				break;
 			}
 		}
-		return lowest;
-		//move "backed-up" : found a good tangible move
+		setChanged();
+		notifyObservers();
+		return bestScore;
 	}
 
+	/*
+	 * One root move of splitRoot(), with its result.
+	 */
+	private final class RootTask extends RecursiveAction {
 
+		private static final long serialVersionUID = 1L;
 
+		private final int move;
+		private final int depth;
+		private final int alpha;
+		private final int beta;
+		private int score;
+		private boolean cutShort; // by the hard deadline
+		private long nodes;
+		private int nodesCached;
+		private int nullMoveCutoffs;
+		private int frontierPrunes;
+		private long evaluationProbes;
+		private long evaluationHits;
+		private int[] principalVariation; // below the move
 
-	public int max(final Board board, final int depth, int alpha, int beta) {
-		this.boardsEvaluated++;
-		if (depth == 0 || gameOver(board)) {		
-			long key = board.getHash();
-			if (Table.SEEN_POSITIONS.containsKey(key)) {
-				incrementNodesCached();
-				return Table.SEEN_POSITIONS.get(key);
-			} else {
-				return this.boardEvaluator.evaluate(board, depth);
+		RootTask(final int move, final int depth, final int alpha, final int beta) {
+			this.move = move;
+			this.depth = depth;
+			this.alpha = alpha;
+			this.beta = beta;
+		}
+
+		@Override
+		protected void compute() {
+			final MiniMax worker = MiniMax.this.rootWorker();
+			worker.startRootTask(MiniMax.this);
+			worker.movesMade[0] = this.move;
+			worker.searchBoard.make(this.move);
+			this.score = worker.searchMove(false, this.depth - 1, this.alpha, this.beta, 1);
+			this.cutShort = worker.stopped;
+			this.nodes = worker.boardsEvaluated;
+			this.nodesCached = worker.nodesCached;
+			this.nullMoveCutoffs = worker.nullMoveCutoffs;
+			this.frontierPrunes = worker.frontierPrunes;
+			this.evaluationProbes = worker.evaluationProbes;
+			this.evaluationHits = worker.evaluationHits;
+			this.principalVariation = Arrays.copyOf(worker.principalVariation[1], worker.pvLength[1]);
+			MiniMax.this.rootWorkers.push(worker);
+		}
+	}
+
+	/*
+	 * An idle root worker, or a new one if every worker made so far is busy.
+	 * Workers go back to the idle ones after each task, so there are never
+	 * more than the pool's threads, and they are kept for the next search.
+	 */
+	private MiniMax rootWorker() {
+		final MiniMax idle = this.rootWorkers.poll();
+		if (idle != null) {
+			return idle;
+		}
+		final MiniMax worker = new MiniMax(this.evaldepth, 0, new TranspositionTable(ROOT_TASK_TABLE_SIZE),
+				this.evaluationCache);
+		worker.sharedTable = this.transpositionTable;
+		return worker;
+	}
+
+	/*
+	 * Resets a root worker to the state of the search it works for.
+	 */
+	private void startRootTask(final MiniMax search) {
+		this.searchBoard = new SearchBoard(search.rootBoard);
+		this.transpositionTable.clear();
+		this.searchHistory.copyFrom(search.searchHistory);
+		this.futilityMargins = search.futilityMargins;
+		this.razorMargins = search.razorMargins;
+		this.lateMoveReductions = search.lateMoveReductions;
+		this.hardDeadline = search.hardDeadline;
+		this.stopped = false;
+		resetCounters();
+	}
+
+	/*
+	 * Zeroes the statistics, which count one search each.
+	 */
+	private void resetCounters() {
+		this.boardsEvaluated = 0;
+		this.nodesCached = 0;
+		this.researches = 0;
+		this.nullMoveCutoffs = 0;
+		this.frontierPrunes = 0;
+		this.evaluationProbes = 0;
+		this.evaluationHits = 0;
+	}
+
+	private static void moveToFront(final MoveList moves, final int move) {
+		for (int i = 1; i < moves.size(); i++) {
+			if (moves.get(i) == move) {
+				for (int j = i; j > 0; j--) {
+					moves.swap(j, j - 1);
+				}
+				return;
 			}
 		}
+	}
+
+	/*
+	 * Checks the clock every TIME_CHECK_NODES nodes; once the hard deadline
+	 * has passed, or a helper has been aborted, every node returns at once and
+	 * nothing more is stored.
+	 */
+	private boolean outOfTime() {
+		if (!this.stopped && (this.boardsEvaluated & (TIME_CHECK_NODES - 1)) == 0
+				&& (this.aborted || System.currentTimeMillis() >= this.hardDeadline)) {
+			this.stopped = true;
+		}
+		return this.stopped;
+	}
+	
 
-		int highest = alpha; //This is Integer.MIN_VALUE in the first call.
-		Collection<Move> sorted = sort(board.currentPlayer().getLegalMoves(), board);
+	/*
+	 * Negamax principal variation search on this.searchBoard. Scores are from
+	 * the point of view of the side to move, and fail soft. Moves come from
+	 * the ply's MovePicker, so a node that cuts off early never generates the
+	 * rest of its moves. The picker only hands out legal moves, so a node it
+	 * has no move for is mate or stalemate.
+	 *
+	 * Every node first looks itself up in the transposition table: outside the
+	 * principal variation, a deep enough entry whose bound settles the window
+	 * returns at once, and any entry's best move is searched first.
+	 *
+	 * Outside the principal variation, a node then tries the null move: the
+	 * side to move passes, and the opponent is searched to a depth reduced by
+	 * 2 (3 from depth 7 on) with a null window at beta. If even that fails
+	 * high, the node is cut off. Passing is not tried when in check, with
+	 * only pawns left (zugzwang), or right after the opponent passed.
+	 *
+	 * Near the leaves, outside the principal variation and not in check, a
+	 * node whose static evaluation is far below alpha is razored (left to
+	 * quiesce()) or has its quiet moves pruned (futility pruning); see
+	 * setFutilityMargins() and setRazorMargins(). Neither happens when alpha
+	 * or beta is a mate score.
+	 *
+	 * Quiet moves late in the order are first scouted at a reduced depth (see
+	 * reduction()), and only searched at full depth if they beat alpha.
+	 *
+	 * A quiet move that fails high is recorded in the SearchHistory as a
+	 * killer for the ply and as the countermove to the opponent's last move,
+	 * and its history score rises while the quiet moves searched before it
+	 * fall. The MovePicker orders quiet moves by all three.
+	 * 
+	 * @param alpha: best move evaluation must be better than alpha - maximum
+	 * lower bound
+	 * @param beta: best move evaluation must be worse than beta - minimum upper
+	 * bound
+	 * @param ply: distance from the root, which selects the MovePicker
+	 */
 
-		for (final Move move : sorted) {
-			final MoveTransition moveTransition = board.currentPlayer().makeMove(move);
-			//highest = Math.max(highest, min(moveTransition.getBoard(), depth - 1, highest, beta)); 
-			int score = min(moveTransition.getBoard(), depth - 1, highest, beta);
-			if (score > highest) {
-				highest = score;
+	private int search(final int depth, int alpha, final int beta, final int ply, final boolean nullMoveAllowed) {
+		if (depth == 0) {
+			return quiesce(alpha, beta, ply);
+		}
+		this.boardsEvaluated++;
+		this.pvLength[ply] = 0;
+		if (ply == MAX_PLY - 1) {
+			return evaluate();
+		}
+		if (outOfTime()) {
+			return 0;
+		}
+		final boolean pvNode = beta - alpha > 1;
+		final long entry = probe();
+		if (!pvNode) {
+			final int cached = cachedScore(entry, depth, alpha, beta, ply);
+			if (cached != NO_SCORE) {
+				return cached;
+			}
+		}
+		final boolean inCheck = this.searchBoard.inCheck();
+		if (nullMoveAllowed && !pvNode && !inCheck && depth >= NULL_MOVE_MIN_DEPTH
+				&& this.searchBoard.hasNonPawnMaterial(this.searchBoard.getSideToMove())) {
+			// null move: if passing the turn still fails high, a real move will too
+			final int reduction = depth > 6 ? 3 : 2;
+			this.movesMade[ply] = PackedMove.NONE;
+			this.searchBoard.makeNullMove();
+			final int score = -search(Math.max(depth - 1 - reduction, 0), -beta, -beta + 1, ply + 1, false);
+			this.searchBoard.unmakeNullMove();
+			if (this.stopped) {
+				return 0;
+			}
+			if (score >= beta) {
+				this.nullMoveCutoffs++;
+				return score > MATE_SCORE - MAX_PLY ? beta : score; // an unproven mate
 			}
-			if (beta <= highest) {//fail high: passed the minimum upper bound — opponent can avoid this
-				return beta; 
-				
+		}
+		// frontier pruning, for nodes whose static evaluation is far below alpha
+		boolean futile = false;
+		int futileScore = -INFINITY;
+		if (!pvNode && !inCheck && depth < this.futilityMargins.length && Math.abs(alpha) < MATE_SCORE - MAX_PLY
+				&& Math.abs(beta) < MATE_SCORE - MAX_PLY) {
+			final int staticScore = evaluate();
+			if (depth < this.razorMargins.length && staticScore + this.razorMargins[depth] <= alpha) {
+				// razoring: unless a capture wins the material back, give up on the node
+				final int score = quiesce(alpha, alpha + 1, ply);
+				if (this.stopped) {
+					return 0;
+				}
+				if (score <= alpha) {
+					this.frontierPrunes++;
+					return score;
+				}
 			}
+			futileScore = staticScore + this.futilityMargins[depth];
+			futile = futileScore <= alpha;
 		}
-		//move "backed-up" : found a good tangible move
-		return highest;
+		final int originalAlpha = alpha;
+		int bestScore = -INFINITY;
+		int best = PackedMove.NONE;
+		int moveCount = 0;
+		int quietCount = 0;
+		final int previousMove = ply > 0 ? this.movesMade[ply - 1] : PackedMove.NONE;
+		final MovePicker picker = this.movePickers[ply];
+		picker.init(this.searchBoard, TranspositionTable.getMove(entry), this.searchHistory, ply, previousMove);
+
+		int move;
+		while ((move = picker.next()) != PackedMove.NONE) {
+			final boolean quiet = !PackedMove.isCapture(move) && !PackedMove.isPromotion(move);
+			this.movesMade[ply] = move;
+			this.searchBoard.make(move);
+			if (futile && moveCount > 0 && quiet && !picker.isKiller(move) && !picker.isCounterMove(move)
+					&& !this.searchBoard.inCheck()) {
+				// futility pruning: a quiet move is not going to make up the margin
+				this.searchBoard.unmake(move);
+				moveCount++;
+				this.frontierPrunes++;
+				if (futileScore > bestScore) {
+					bestScore = futileScore;
+				}
+				continue;
+			}
+			final int reduction = reduction(picker, move, depth, moveCount, inCheck, pvNode);
+			int score;
+			if (reduction > 0) {
+				score = -search(depth - 1 - reduction, -alpha - 1, -alpha, ply + 1, true);
+				if (score > alpha && !this.stopped) { // the reduced search was wrong about this move
+					score = searchMove(false, depth - 1, alpha, beta, ply + 1);
+				}
+			} else {
+				score = searchMove(moveCount == 0, depth - 1, alpha, beta, ply + 1);
+			}
+			moveCount++;
+			this.searchBoard.unmake(move);
+			if (this.stopped) {
+				return 0;
+			}
+			if (score > bestScore) {
+				bestScore = score;
+				best = move;
+				if (score > alpha) {
+					alpha = score;
+					updatePrincipalVariation(ply, move);
+					if (alpha >= beta) { //fail high: the opponent will avoid this position
+						if (quiet) {
+							this.searchHistory.updateCutoff(this.searchBoard.getSideToMove(), ply, move, previousMove,
+									depth, this.quietsSearched[ply], quietCount);
+						}
+						break;
+					}
+				}
+			}
+			if (quiet) {
+				this.quietsSearched[ply][quietCount++] = move;
+			}
+		}
+		if (moveCount == 0) { // mated or stalemated
+			return this.searchBoard.inCheck() ? -MATE_SCORE + ply : 0;
+		}
+		final int bound = bestScore >= beta ? TranspositionTable.LOWER
+				: bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+		storeScore(depth, best, bestScore, bound, ply);
+		return bestScore;
 	}
 
-	//TODO: killer heuristic, history heuristic, countermove, captures (SEE) and potential captures (MVV/LVA)
 	/*
-	 * new sort order TODO: 
-	 * 1. PV
-	 * 2. captures & promotions 
-	 * 2.1 (MVV+LVA) via Static Exchange Eval (SEE) if (MVV/LVA < 0)
-	 * 2.2 if (SEE < 0) goto 6
-	 * 3. Killer moves (beta-cutoff @ this depth)
-	 * 4. non-captures — sort by (refutationTable.contains()?)
-	 * 5. all other non-captures (derive from move history + countermove?)
-	 * 6. losing captures
+	 * Quiescence search past the horizon: only captures and queen promotions
+	 * are searched, so the position is not evaluated in the middle of an
+	 * exchange. The side to move may always stand pat on the static
+	 * evaluation instead of capturing. A capture that could not lift the
+	 * score to alpha even with DELTA_MARGIN to spare is not searched (delta
+	 * pruning), and neither is one that loses material in the exchange that
+	 * follows (see StaticExchange). In check there is no standing pat, and
+	 * every evasion is searched.
 	 */
-	private Collection<Move> sort(final Collection<Move> legalMoves, final Board board) {
-		int score;
-		List<Move> sortedMoves = new ArrayList<>();
-		HashMap<Move, Integer> moveScoreTable = new HashMap<>();
-		for (Move m : legalMoves) {
-			final MoveTransition transition = board.currentPlayer().makeMove(m);
-			if (transition.getMoveStatus().isDone()) {
-				if (Table.SEEN_POSITIONS.containsKey(transition.getBoard().getHash())) {
-					score = Table.SEEN_POSITIONS.get(transition.getBoard().getHash());
-				} else {
-					score = this.boardEvaluator.evaluate(board, 1);					
-				}				
-				moveScoreTable.put(m, score);
-				if (sortedMoves.isEmpty()) {
-					sortedMoves.add(m);
-				} else { //perform insertion sort by score
-					if (score >= moveScoreTable.get(sortedMoves.get(sortedMoves.size() - 1))) {
-						sortedMoves.add(m);
-					} else {
-						for (int i = 0; i < sortedMoves.size(); i++) {				
-							if (score < moveScoreTable.get(sortedMoves.get(i))) {
-								sortedMoves.add(i, m); //add before index i
-								break;
-							}
+	private int quiesce(int alpha, final int beta, final int ply) {
+		this.boardsEvaluated++;
+		this.pvLength[ply] = 0;
+		if (ply == MAX_PLY - 1) {
+			return evaluate();
+		}
+		if (outOfTime()) {
+			return 0;
+		}
+		final boolean inCheck = this.searchBoard.inCheck();
+		final MoveList moves = this.quiescenceMoves[ply];
+		moves.clear();
+		int standPat = -INFINITY;
+		int bestScore = -INFINITY;
+		if (inCheck) {
+			this.searchBoard.generateEvasions(moves);
+			if (moves.isEmpty()) {
+				return -MATE_SCORE + ply;
+			}
+		} else {
+			standPat = evaluate();
+			if (standPat >= beta) {
+				return standPat;
+			}
+			if (standPat > alpha) {
+				alpha = standPat;
+			}
+			bestScore = standPat;
+			this.searchBoard.generateLegalCaptures(moves);
+		}
+		scoreCaptures(moves);
 
-						}
+		for (int i = 0; i < moves.size(); i++) {
+			final int move = moves.pickBest(i);
+			if (!inCheck) {
+				if (PackedMove.isPromotion(move)) {
+					if (PackedMove.getPromotionType(move) != PieceType.QUEEN.getEnum()) {
+						continue; // underpromotions almost never matter here
 					}
+				} else if (standPat + PIECE_VALUES[PackedMove.getCaptured(move) % 6] + DELTA_MARGIN <= alpha
+						|| !StaticExchange.seeGE(this.searchBoard, move, 0)) {
+					continue;
 				}
 			}
+			this.searchBoard.make(move);
+			final int score = -quiesce(-beta, -alpha, ply + 1);
+			this.searchBoard.unmake(move);
+			if (this.stopped) {
+				return 0;
+			}
+			if (score > bestScore) {
+				bestScore = score;
+				if (score > alpha) {
+					alpha = score;
+					updatePrincipalVariation(ply, move);
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+		}
+		return bestScore;
+	}
 
+	/*
+	 * Static evaluation from the point of view of the side to move, from the
+	 * evaluation cache when the position has been evaluated before. Only the
+	 * part that belongs to the position is cached; the terms that depend on
+	 * the game ply are added afterwards, so the cache stays valid from one
+	 * move to the next.
+	 */
+	private int evaluate() {
+		final long key = this.searchBoard.getHash();
+		final long cached = this.evaluationCache.probe(key);
+		this.evaluationProbes++;
+		int score;
+		if (cached != 0) {
+			this.evaluationHits++;
+			score = EvaluationCache.getScore(cached);
+		} else {
+			score = this.boardEvaluator.evaluate(this.searchBoard);
+			this.evaluationCache.store(key, score);
 		}
-		if (board.currentPlayer().getSide().isWhite()) Collections.reverse(sortedMoves);
-		return ImmutableList.copyOf(sortedMoves);
+		score += this.boardEvaluator.evaluateGamePly(this.searchBoard);
+		return this.searchBoard.getSide().isWhite() ? score : -score;
 	}
 
+	/*
+	 * Scores captures by MVV/LVA; non-captures (evasions) go last.
+	 */
+	private static void scoreCaptures(final MoveList moves) {
+		for (int i = 0; i < moves.size(); i++) {
+			moves.setScore(i, MovePicker.captureScore(moves.get(i)));
+		}
+	}
 
-	boolean gameOver(final Board board) {
-		return board.currentPlayer().inCheckmate() || board.currentPlayer().inStalemate();
+	/*
+	 * Late move reduction for the move just made: how many plies less than
+	 * depth - 1 to scout it with, from LMR_REDUCTIONS. Only quiet moves late
+	 * in the order are reduced, and never the hash move, a killer, the
+	 * countermove, a check or a move out of check. Principal variation nodes
+	 * reduce one ply less.
+	 */
+	private int reduction(final MovePicker picker, final int move, final int depth, final int moveNumber,
+			final boolean inCheck, final boolean pvNode) {
+		if (!this.lateMoveReductions || depth < LMR_MIN_DEPTH || moveNumber < LMR_MIN_MOVES || inCheck || PackedMove.isCapture(move)
+				|| PackedMove.isPromotion(move) || picker.isHashMove(move) || picker.isKiller(move)
+				|| picker.isCounterMove(move) || this.searchBoard.inCheck()) {
+			return 0;
+		}
+		final int reduction = LMR_REDUCTIONS[Math.min(depth, MAX_DEPTH)][Math.min(moveNumber, MoveList.MAX_MOVES - 1)]
+				- (pvNode ? 1 : 0);
+		return Math.max(0, Math.min(reduction, depth - 2));
+	}
+
+	/*
+	 * Searches the move just made, from the point of view of the side that
+	 * made it. The first move of a node gets the full window; the others are
+	 * only scouted with a null window around alpha, and searched again with
+	 * the full window if they turn out to beat it.
+	 */
+	private int searchMove(final boolean first, final int depth, final int alpha, final int beta, final int ply) {
+		if (first) {
+			return -search(depth, -beta, -alpha, ply, true);
+		}
+		int score = -search(depth, -alpha - 1, -alpha, ply, true);
+		if (score > alpha && score < beta && !this.stopped) {
+			score = -search(depth, -beta, -alpha, ply, true);
+		}
+		return score;
+	}
+
+	/*
+	 * Makes the PV at ply the given move followed by the PV found below it.
+	 */
+	private void updatePrincipalVariation(final int ply, final int move) {
+		this.principalVariation[ply][0] = move;
+		System.arraycopy(this.principalVariation[ply + 1], 0, this.principalVariation[ply], 1, this.pvLength[ply + 1]);
+		this.pvLength[ply] = this.pvLength[ply + 1] + 1;
+	}
+
+	/*
+	 * The moves of the root PV in long algebraic notation.
+	 */
+	public String principalVariation() {
+		final StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < this.pvLength[0]; i++) {
+			if (i > 0) {
+				builder.append(' ');
+			}
+			builder.append(PackedMove.toString(this.principalVariation[0][i]));
+		}
+		return builder.toString();
+	}
 
+	/*
+	 * Returns the score a transposition table entry settles for this node, or
+	 * NO_SCORE if the node has to be searched. Mate scores are stored
+	 * relative to the node, and turned back into distance from the root here.
+	 */
+	private int cachedScore(final long entry, final int depth, final int alpha, final int beta, final int ply) {
+		if (entry == 0 || TranspositionTable.getDepth(entry) < depth) {
+			return NO_SCORE;
+		}
+		int score = TranspositionTable.getScore(entry);
+		if (score > MATE_SCORE - MAX_PLY) {
+			score -= ply;
+		} else if (score < -MATE_SCORE + MAX_PLY) {
+			score += ply;
+		}
+		final int bound = TranspositionTable.getBound(entry);
+		if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && score >= beta)
+				|| (bound == TranspositionTable.UPPER && score <= alpha)) {
+			this.nodesCached++;
+			return score;
+		}
+		return NO_SCORE;
+	}
+
+	/*
+	 * Probes the transposition table, then the shared one behind it, if any.
+	 */
+	private long probe() {
+		final long hash = this.searchBoard.getHash();
+		final long entry = this.transpositionTable.probe(hash);
+		return entry != 0 || this.sharedTable == null ? entry : this.sharedTable.probe(hash);
+	}
+
+	private void storeScore(final int depth, final int move, final int score, final int bound, final int ply) {
+		int stored = score;
+		if (score > MATE_SCORE - MAX_PLY && score <= MATE_SCORE) {
+			stored += ply;
+		} else if (score < -MATE_SCORE + MAX_PLY && score >= -MATE_SCORE) {
+			stored -= ply;
+		}
+		this.transpositionTable.store(this.searchBoard.getHash(), move, stored, bound, depth);
 	}
 
 }
@@ -0,0 +1,259 @@
+package chess.engine.player.ai;
+
+import chess.engine.board.MoveList;
+import chess.engine.board.PackedMove;
+import chess.engine.board.SearchBoard;
+import chess.engine.board.StaticExchange;
+import chess.engine.pieces.Piece.PieceType;
+
+/*
+ * Hands out the legal moves of one search node in stages, generating each stage only when the previous
+ * one is used up:
+ *
+ * 1. the hash move, if it is legal here
+ * 2. captures and promotions that do not lose material (see StaticExchange), by MVV/LVA
+ * 3. the killer moves, if they are legal quiet moves here
+ * 4. the countermove to the opponent's last move, if it is a legal quiet move here
+ * 5. all other quiet moves, highest history score first
+ * 6. the captures from stage 2 that lose material, by MVV/LVA
+ *
+ * Killers, countermoves and history scores come from the search's SearchHistory. When the side to move
+ * is in check, stages 2 - 6 are replaced by a single stage of evasions, captures first, since there are
+ * few of them and killers rarely answer a check.
+ *
+ * Each move is scored once, when its stage is generated, and the stage then hands out the best scored
+ * move left by selection (MoveList.pickBest), so a node that cuts off early never sorts the rest. The
+ * exchange of a capture is only evaluated when the capture comes up. A node that cuts off on the hash
+ * move or a capture never generates its quiet moves. Moves from an earlier stage are not repeated
+ * later. The search keeps one MovePicker per ply and re-initializes it at every node, so nothing is
+ * allocated while searching.
+ */
+
+public final class MovePicker {
+
+	private static final int HASH_MOVE = 0;
+	private static final int GENERATE_CAPTURES = 1;
+	private static final int GOOD_CAPTURES = 2;
+	private static final int KILLERS = 3;
+	private static final int COUNTER_MOVE = 4;
+	private static final int GENERATE_QUIETS = 5;
+	private static final int QUIETS = 6;
+	private static final int BAD_CAPTURES = 7;
+	private static final int GENERATE_EVASIONS = 8;
+	private static final int EVASIONS = 9;
+	private static final int DONE = 10;
+
+	// score bands for scoreMoves(), in stage order; history scores fall between KILLER and BAD_CAPTURE
+	private static final int HASH_MOVE_SCORE = 1 << 30;
+	private static final int GOOD_CAPTURE_SCORE = 1 << 28;
+	private static final int KILLER_SCORE = 1 << 27;
+	private static final int BAD_CAPTURE_SCORE = -(1 << 28);
+
+	private static final int[] PIECE_VALUES = new int[PieceType.values().length]; // by piece type
+
+	static {
+		for (final PieceType type : PieceType.values()) {
+			PIECE_VALUES[type.getEnum()] = type.getValue();
+		}
+	}
+
+	private final MoveList moves = new MoveList();
+	private final MoveList badCaptures = new MoveList();
+	private final int[] killers = new int[2];
+	private SearchBoard board;
+	private SearchHistory history;
+	private int hashMove;
+	private int counterMove;
+	private int stage;
+	private int index;
+
+	/*
+	 * One picker per ply, for searches that recurse up to the given depth.
+	 */
+	public static MovePicker[] createStack(final int plies) {
+		final MovePicker[] stack = new MovePicker[plies];
+		for (int ply = 0; ply < plies; ply++) {
+			stack[ply] = new MovePicker();
+		}
+		return stack;
+	}
+
+	/*
+	 * Starts a new node at the given ply. Pass PackedMove.NONE for a missing
+	 * hash move, or for the previous move after a null move or at the root.
+	 */
+	public void init(final SearchBoard board, final int hashMove, final SearchHistory history, final int ply,
+			final int previousMove) {
+		this.board = board;
+		this.history = history;
+		this.hashMove = hashMove;
+		this.killers[0] = history.getKiller(ply, 0);
+		this.killers[1] = history.getKiller(ply, 1);
+		this.counterMove = history.getCounterMove(previousMove);
+		this.stage = HASH_MOVE;
+		this.index = 0;
+		this.moves.clear();
+		this.badCaptures.clear();
+	}
+
+	/*
+	 * Returns the next move, or PackedMove.NONE once every stage is used up.
+	 */
+	public int next() {
+		while (true) {
+			switch (this.stage) {
+			case HASH_MOVE:
+				this.stage = this.board.inCheck() ? GENERATE_EVASIONS : GENERATE_CAPTURES;
+				if (this.board.isLegal(this.hashMove)) {
+					return this.hashMove;
+				}
+				break;
+			case GENERATE_CAPTURES:
+				this.board.generateLegalCaptures(this.moves);
+				for (int i = 0; i < this.moves.size(); i++) {
+					this.moves.setScore(i, captureScore(this.moves.get(i)));
+				}
+				this.index = 0;
+				this.stage = GOOD_CAPTURES;
+				break;
+			case GOOD_CAPTURES:
+				while (this.index < this.moves.size()) {
+					final int move = this.moves.pickBest(this.index++);
+					if (move == this.hashMove) {
+						continue;
+					}
+					if (!StaticExchange.seeGE(this.board, move, 0)) { // losing: try it after the quiet moves
+						this.badCaptures.add(move);
+						this.badCaptures.setScore(this.badCaptures.size() - 1, captureScore(move));
+						continue;
+					}
+					return move;
+				}
+				this.index = 0;
+				this.stage = KILLERS;
+				break;
+			case KILLERS:
+				while (this.index < this.killers.length) {
+					final int killer = this.killers[this.index++];
+					final boolean repeated = this.index == 2 && killer == this.killers[0];
+					if (killer != this.hashMove && !repeated && isQuiet(killer) && this.board.isLegal(killer)) {
+						return killer;
+					}
+				}
+				this.stage = COUNTER_MOVE;
+				break;
+			case COUNTER_MOVE:
+				this.stage = GENERATE_QUIETS;
+				if (this.counterMove != this.hashMove && !isKiller(this.counterMove) && isQuiet(this.counterMove)
+						&& this.board.isLegal(this.counterMove)) {
+					return this.counterMove;
+				}
+				break;
+			case GENERATE_QUIETS:
+				this.moves.clear();
+				this.board.generateLegalQuiets(this.moves);
+				final int side = this.board.getSideToMove();
+				for (int i = 0; i < this.moves.size(); i++) {
+					this.moves.setScore(i, this.history.getHistory(side, this.moves.get(i)));
+				}
+				this.index = 0;
+				this.stage = QUIETS;
+				break;
+			case QUIETS:
+				while (this.index < this.moves.size()) {
+					final int move = this.moves.pickBest(this.index++);
+					if (move != this.hashMove && !isKiller(move) && move != this.counterMove) {
+						return move;
+					}
+				}
+				this.index = 0;
+				this.stage = BAD_CAPTURES;
+				break;
+			case BAD_CAPTURES:
+				if (this.index < this.badCaptures.size()) {
+					return this.badCaptures.pickBest(this.index++);
+				}
+				this.stage = DONE;
+				break;
+			case GENERATE_EVASIONS:
+				this.board.generateEvasions(this.moves);
+				final int evader = this.board.getSideToMove();
+				for (int i = 0; i < this.moves.size(); i++) {
+					final int move = this.moves.get(i);
+					this.moves.setScore(i, isQuiet(move) ? this.history.getHistory(evader, move)
+							: GOOD_CAPTURE_SCORE + captureScore(move));
+				}
+				this.index = 0;
+				this.stage = EVASIONS;
+				break;
+			case EVASIONS:
+				while (this.index < this.moves.size()) {
+					final int move = this.moves.pickBest(this.index++);
+					if (move != this.hashMove) {
+						return move;
+					}
+				}
+				this.stage = DONE;
+				break;
+			default:
+				return PackedMove.NONE;
+			}
+		}
+	}
+
+	boolean isHashMove(final int move) {
+		return move == this.hashMove;
+	}
+
+	boolean isKiller(final int move) {
+		return move == this.killers[0] || move == this.killers[1];
+	}
+
+	boolean isCounterMove(final int move) {
+		return move == this.counterMove;
+	}
+
+	/*
+	 * Scores a whole list of legal moves in the order a MovePicker would hand
+	 * them out, for a list that is searched more than once (the root moves).
+	 */
+	static void scoreMoves(final SearchBoard board, final MoveList moves, final int hashMove,
+			final SearchHistory history, final int ply) {
+		final int side = board.getSideToMove();
+		for (int i = 0; i < moves.size(); i++) {
+			final int move = moves.get(i);
+			final int score;
+			if (move == hashMove) {
+				score = HASH_MOVE_SCORE;
+			} else if (!isQuiet(move)) {
+				score = (StaticExchange.seeGE(board, move, 0) ? GOOD_CAPTURE_SCORE : BAD_CAPTURE_SCORE)
+						+ captureScore(move);
+			} else if (move == history.getKiller(ply, 0) || move == history.getKiller(ply, 1)) {
+				score = KILLER_SCORE;
+			} else {
+				score = history.getHistory(side, move);
+			}
+			moves.setScore(i, score);
+		}
+	}
+
+	/*
+	 * MVV/LVA: the most valuable victim first, and of the captures of one
+	 * victim, the one with the least valuable attacker. Promotions count as
+	 * capturing the promoted piece.
+	 */
+	static int captureScore(final int move) {
+		int score = 0;
+		if (PackedMove.isCapture(move)) {
+			score += 8 * PIECE_VALUES[PackedMove.getCaptured(move) % 6] - PackedMove.getPiece(move) % 6;
+		}
+		if (PackedMove.isPromotion(move)) {
+			score += 8 * PIECE_VALUES[PackedMove.getPromotionType(move)];
+		}
+		return score;
+	}
+
+	private static boolean isQuiet(final int move) {
+		return move != PackedMove.NONE && !PackedMove.isCapture(move) && !PackedMove.isPromotion(move);
+	}
+}
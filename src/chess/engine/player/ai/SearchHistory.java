@@ -0,0 +1,121 @@
+package chess.engine.player.ai;
+
+import java.util.Arrays;
+
+import chess.engine.board.BoardUtils;
+import chess.engine.board.PackedMove;
+
+/*
+ * What a search has learned about quiet moves, for ordering them:
+ *
+ * - killers: per ply, the last two quiet moves that caused a beta cutoff there
+ * - history: per side, from tile and to tile ("butterfly" table), a score raised for quiet moves that
+ *   cut off and lowered for the quiet moves searched before them, weighted by depth squared
+ * - countermoves: per moved piece and destination of the previous move, the quiet move that refuted it
+ *
+ * History scores use gravity: each update moves a score towards the bonus by a fraction that shrinks as
+ * the score approaches MAX_HISTORY, so scores stay bounded and recent results outweigh old ones.
+ *
+ * One SearchHistory belongs to one search thread and is not shared. newSearch() clears the killers
+ * and countermoves, which are only good for nearby positions, and ages the history scores.
+ */
+
+public final class SearchHistory {
+
+	static final int MAX_HISTORY = 16384;
+
+	private static final int NUM_SIDES = 2;
+	private static final int NUM_PIECES = 12;
+
+	private final int[][] killers;
+	private final int[][][] history = new int[NUM_SIDES][BoardUtils.NUM_TILES][BoardUtils.NUM_TILES];
+	private final int[][] counterMoves = new int[NUM_PIECES][BoardUtils.NUM_TILES];
+
+	public SearchHistory(final int plies) {
+		this.killers = new int[plies][2];
+	}
+
+	/*
+	 * Forgets the killers and countermoves, and halves every history score.
+	 */
+	void newSearch() {
+		for (final int[] plyKillers : this.killers) {
+			plyKillers[0] = PackedMove.NONE;
+			plyKillers[1] = PackedMove.NONE;
+		}
+		for (final int[] pieceCounterMoves : this.counterMoves) {
+			Arrays.fill(pieceCounterMoves, PackedMove.NONE);
+		}
+		for (final int[][] sideHistory : this.history) {
+			for (final int[] fromHistory : sideHistory) {
+				for (int to = 0; to < fromHistory.length; to++) {
+					fromHistory[to] /= 2;
+				}
+			}
+		}
+	}
+
+	/*
+	 * Makes this history a copy of another one.
+	 */
+	void copyFrom(final SearchHistory other) {
+		for (int ply = 0; ply < this.killers.length; ply++) {
+			System.arraycopy(other.killers[ply], 0, this.killers[ply], 0, this.killers[ply].length);
+		}
+		for (int piece = 0; piece < NUM_PIECES; piece++) {
+			System.arraycopy(other.counterMoves[piece], 0, this.counterMoves[piece], 0, BoardUtils.NUM_TILES);
+		}
+		for (int side = 0; side < NUM_SIDES; side++) {
+			for (int from = 0; from < BoardUtils.NUM_TILES; from++) {
+				System.arraycopy(other.history[side][from], 0, this.history[side][from], 0, BoardUtils.NUM_TILES);
+			}
+		}
+	}
+
+	int getKiller(final int ply, final int slot) {
+		return this.killers[ply][slot];
+	}
+
+	/*
+	 * The quiet move that last refuted the previous move, or NONE.
+	 */
+	int getCounterMove(final int previousMove) {
+		if (previousMove == PackedMove.NONE) {
+			return PackedMove.NONE;
+		}
+		return this.counterMoves[PackedMove.getPiece(previousMove)][PackedMove.getDestination(previousMove)];
+	}
+
+	int getHistory(final int side, final int move) {
+		return this.history[side][PackedMove.getStart(move)][PackedMove.getDestination(move)];
+	}
+
+	/*
+	 * Records a beta cutoff by a quiet move: it becomes the first killer of
+	 * the ply and the countermove of the previous move, its history score
+	 * rises, and the scores of the quiet moves tried before it fall.
+	 */
+	public void updateCutoff(final int side, final int ply, final int move, final int previousMove, final int depth,
+			final int[] quietsTried, final int quietCount) {
+		if (this.killers[ply][0] != move) {
+			this.killers[ply][1] = this.killers[ply][0];
+			this.killers[ply][0] = move;
+		}
+		if (previousMove != PackedMove.NONE) {
+			this.counterMoves[PackedMove.getPiece(previousMove)][PackedMove.getDestination(previousMove)] = move;
+		}
+		final int bonus = Math.min(depth * depth, MAX_HISTORY);
+		addHistory(side, move, bonus);
+		for (int i = 0; i < quietCount; i++) {
+			if (quietsTried[i] != move) {
+				addHistory(side, quietsTried[i], -bonus);
+			}
+		}
+	}
+
+	private void addHistory(final int side, final int move, final int bonus) {
+		final int[] fromHistory = this.history[side][PackedMove.getStart(move)];
+		final int to = PackedMove.getDestination(move);
+		fromHistory[to] += bonus - fromHistory[to] * Math.abs(bonus) / MAX_HISTORY;
+	}
+}
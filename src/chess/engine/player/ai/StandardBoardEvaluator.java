@@ -1,15 +1,15 @@
 package chess.engine.player.ai;
 
 import chess.engine.Side;
-import chess.engine.ZobristHash;
+import chess.engine.board.BitBoards;
 import chess.engine.board.Board;
 import chess.engine.board.BoardUtils;
 import chess.engine.board.Move;
+import chess.engine.board.PieceSquareTables;
+import chess.engine.board.SearchBoard;
 import chess.engine.pieces.Piece;
 import chess.engine.pieces.Piece.PieceType;
 import chess.engine.player.Player;
-import chess.gui.Table;
-import chess.engine.player.ai.MiniMax;
 
 public final class StandardBoardEvaluator implements BoardEvaluator {
 
@@ -18,77 +18,15 @@ public final class StandardBoardEvaluator implements BoardEvaluator {
 	private static final int DEPTH_BONUS = 100;
 	private static final int CASTLE_BONUS = 60;
 	private static final int DEVELOPMENT_BONUS = 10;
-
-	//reverse for black: same file, reversed rank order
-	private static final int[] PAWN_POSITION_SCORES =
-		  { 0,  0,  0,  0,  0,  0,  0,  0,
-			50, 50, 50, 50, 50, 50, 50, 50,
-			10, 10, 20, 30, 30, 20, 10, 10,
-			5,  5, 10, 25, 25, 10,  5,  5,
-			0,  0,  0, 20, 20,  0,  0,  0,
-			5, -5,-10,  0,  0,-10, -5,  5,
-			5, 10, 10,-20,-20, 10, 10,  5,
-			0,  0,  0,  0,  0,  0,  0,  0 };
-	
-	private static final int[] KNIGHT_POSITION_SCORES =
-		  { -50,-40,-30,-30,-30,-30,-40,-50,
-			-40,-20,  0,  0,  0,  0,-20,-40,
-			-30,  0, 10, 15, 15, 10,  0,-30,
-			-30,  5, 15, 20, 20, 15,  5,-30,
-			-30,  0, 15, 20, 20, 15,  0,-30,
-			-30,  5, 10, 15, 15, 10,  5,-30,
-			-40,-20,  0,  5,  5,  0,-20,-40,
-			-50,-40,-30,-30,-30,-30,-40,-50};
-	
-	private static final int[] BISHOP_POSITION_SCORES =
-		  { -20,-10,-10,-10,-10,-10,-10,-20,
-		    -10,  0,  0,  0,  0,  0,  0,-10,
-		    -10,  0,  5, 10, 10,  5,  0,-10,
-		    -10,  5,  5, 10, 10,  5,  5,-10,
-		    -10,  0, 10, 10, 10, 10,  0,-10,
-		    -10, 10, 10, 10, 10, 10, 10,-10,
-		    -10,  5,  0,  0,  0,  0,  5,-10,
-		    -20,-10,-10,-10,-10,-10,-10,-20};
-
-	private static final int[] ROOK_POSITION_SCORES =
-		 { 0,  0,  0,  0,  0,  0,  0,  0,
-		   5, 10, 10, 10, 10, 10, 10,  5,
-		  -5,  0,  0,  0,  0,  0,  0, -5,
-		  -5,  0,  0,  0,  0,  0,  0, -5,
-		  -5,  0,  0,  0,  0,  0,  0, -5,
-		  -5,  0,  0,  0,  0,  0,  0, -5,
-		  -5,  0,  0,  0,  0,  0,  0, -5,
-		   0,  0,  0,  5,  5,  0,  0,  0 };
-
-	private static final int[] QUEEN_POSITION_SCORES =
-		 { -20,-10,-10, -5, -5,-10,-10,-20,
-		   -10,  0,  0,  0,  0,  0,  0,-10,
-		   -10,  0,  5,  5,  5,  5,  0,-10,
-		   -5,  0,  5,  5,  5,  5,  0, -5,
-		    0,  0,  5,  5,  5,  5,  0, -5,
-		   -10,  5,  5,  5,  5,  5,  0,-10,
-		   -10,  0,  5,  0,  0,  0,  0,-10,
-		   -20,-10,-10, -5, -5,-10,-10,-20};
-	
-	private static final int[] KING_MIDGAME_SCORES =
-		 { -30,-40,-40,-50,-50,-40,-40,-30,
-		   -30,-40,-40,-50,-50,-40,-40,-30,
-		   -30,-40,-40,-50,-50,-40,-40,-30,
-		   -30,-40,-40,-50,-50,-40,-40,-30,
-		   -20,-30,-30,-40,-40,-30,-30,-20,
-		   -10,-20,-20,-20,-20,-20,-20,-10,
-		    20, 20,  0,  0,  0,  0, 20, 20,
-		    20, 30, 10,  0,  0, 10, 30, 20};
-	
-	private static final int[] KING_ENDGAME_SCORES =
-		{ -50,-40,-30,-20,-20,-30,-40,-50,
-			-30,-20,-10,  0,  0,-10,-20,-30,
-			-30,-10, 20, 30, 30, 20,-10,-30,
-			-30,-10, 30, 40, 40, 30,-10,-30,
-			-30,-10, 30, 40, 40, 30,-10,-30,
-			-30,-10, 20, 30, 30, 20,-10,-30,
-			-30,-30,  0,  0,  0,  0,-30,-30,
-			-50,-30,-30,-30,-30,-30,-30,-50};
+	private static final int QUEEN_MOVE_PENALTY = 50;
+	private static final int OPENING_PLIES = 12; // the queen should stay home this long
+	private static final int CASTLE_BONUS_PLIES = 6; // a castled king earns its bonus after this many
+	// per move and per attack of each player, tapered by the game phase: room to maneuver and threats
+	// count most while there are pieces to coordinate, and less once the piece tables take over
+	private static final int MOBILITY_MIDGAME = 2;
+	private static final int MOBILITY_ENDGAME = 1;
+	private static final int ATTACK_MIDGAME = 2;
+	private static final int ATTACK_ENDGAME = 1;
 
 	// 35, 36, 43, 44 are the coordinates of the center squares
 	// 26, 27, 28, 29, 34, 37, 42, 45, 50, 51, 52, 53 are less important center
@@ -97,9 +35,9 @@ public final class StandardBoardEvaluator implements BoardEvaluator {
 	private static final int[] CENTER_POSITIONS = { 26, 27, 28, 29, 34, 37, 42, 45, 50, 51, 52, 53 };
 	
 	public int quickEvaluate(Board board) {
-		return pieceValue(board.whitePlayer())
+		return pieceValue(board.whitePlayer(), board)
 				+ centerControl(board.whitePlayer(), board)
-				- pieceValue(board.blackPlayer())
+				- pieceValue(board.blackPlayer(), board)
 				- centerControl(board.blackPlayer(), board);
 	}
 	
@@ -108,21 +46,103 @@ public final class StandardBoardEvaluator implements BoardEvaluator {
 		return scorePlayer(board, board.whitePlayer(), depth) - scorePlayer(board, board.blackPlayer(), depth);
 	}
 
+	/*
+	 * Evaluates a search position from white's point of view with the same
+	 * terms as evaluate(Board, int), except the ones evaluateGamePly() adds.
+	 * Material, piece-square scores and the game phase are kept up to date by
+	 * the board. Mobility and attacks are counted from attack sets instead of
+	 * generated moves, and checkmate is left to the search, which sees that no
+	 * legal move is left.
+	 */
+	@Override
+	public int evaluate(final SearchBoard board) {
+		final int phase = board.getPhase();
+		int score = board.getMaterial();
+		int mobility = 0; // white minus black
+		int attacks = 0;
+		for (final Side side : Side.values()) {
+			final int color = side.getEnum();
+			final long own = board.getOccupancy(color);
+			final long enemies = board.getOccupancy(color ^ 1);
+			int sideScore = 0;
+			int sideMobility = 0;
+			int sideAttacks = 0;
+			for (final PieceType type : PieceType.values()) {
+				long pieces = board.getBitboard(color, type.getEnum());
+				while (pieces != 0) {
+					final int tile = BitBoards.firstSquare(pieces);
+					pieces &= pieces - 1;
+					final long targets = type == PieceType.PAWN ? BitBoards.PAWN_ATTACKS[color][tile] & enemies
+							: board.attacks(type.getEnum(), tile) & ~own;
+					sideMobility += BitBoards.popCount(targets);
+					sideAttacks += BitBoards.popCount(targets & enemies);
+				}
+			}
+			if (board.getSideToMove() != color && board.inCheck()) {
+				sideScore += CHECK_BONUS;
+			}
+			score += side.isWhite() ? sideScore : -sideScore;
+			mobility += side.isWhite() ? sideMobility : -sideMobility;
+			attacks += side.isWhite() ? sideAttacks : -sideAttacks;
+		}
+		// mobility(player) counts both sides once per player, so the difference is doubled
+		return score + 2 * PieceSquareTables.taper(board.getMidgameScore(), board.getEndgameScore(), phase)
+				+ 2 * PieceSquareTables.taper(MOBILITY_MIDGAME * mobility, MOBILITY_ENDGAME * mobility, phase)
+				+ PieceSquareTables.taper(ATTACK_MIDGAME * attacks, ATTACK_ENDGAME * attacks, phase);
+	}
+
+	/*
+	 * The castle bonus, and in the first half-moves of the game the queen's
+	 * table score taken back out, from white's point of view.
+	 */
+	@Override
+	public int evaluateGamePly(final SearchBoard board) {
+		final int phase = board.getPhase();
+		final boolean earlyQueen = isOpening(board.getGamePly());
+		int score = 0;
+		for (final Side side : Side.values()) {
+			final int color = side.getEnum();
+			int sideScore = 0;
+			if (earlyQueen) {
+				long queens = board.getBitboard(color, PieceType.QUEEN.getEnum());
+				while (queens != 0) {
+					final int tile = BitBoards.firstSquare(queens);
+					queens &= queens - 1;
+					sideScore -= 2 * PieceSquareTables.positionScore(PieceType.QUEEN, color, tile, phase);
+				}
+			}
+			if (board.isCastled(color) && board.getGamePly() > CASTLE_BONUS_PLIES) {
+				sideScore += castleBonus(phase);
+			}
+			score += side.isWhite() ? sideScore : -sideScore;
+		}
+		return score;
+	}
+
 	private int scorePlayer(final Board board, final Player player, final int depth) {
-		return pieceValue(player)
-				+ mobility(player)
+		final int phase = phase(board);
+		return pieceValue(player, board)
+				+ mobility(player, phase)
 				+ centerControl(player, board)
-				+ attacks(player)
+				+ attacks(player, phase)
 				+ check(player) 
 				+ checkmate(player, depth) 
-				+ castled(player)	
-				+ queenMovePenalty()
+				+ castled(player, board.getPlyCount(), phase)
+				+ queenMovePenalty(board.getPlyCount())
 				/*+ development(player, board)
 				+ pairRewards(player)*/;
 	}
 
-	private static int queenMovePenalty() {
-		return Table.getInstance().getNumMoves() <= 12 ? -50 : 0;
+	/*
+	 * Whether a game is still in the opening half-moves, while bringing the
+	 * queen out is penalized and her table score does not count yet.
+	 */
+	private static boolean isOpening(final int plyCount) {
+		return plyCount <= OPENING_PLIES;
+	}
+
+	private static int queenMovePenalty(final int plyCount) {
+		return isOpening(plyCount) ? -QUEEN_MOVE_PENALTY : 0;
 	}
 
 	private int pairRewards(final Player player) {
@@ -137,26 +157,30 @@ public final class StandardBoardEvaluator implements BoardEvaluator {
 		return bishopCount * 25 - knightCount * 25;
 	}
 
-	private int attacks(Player player) {
+	private int attacks(Player player, final int phase) {
 		int total = 0;
 		for (final Move move : player.getLegalMoves()) {
 			if (move.isAttack()) total++;
 		}
-		return total * 2;
+		return PieceSquareTables.taper(ATTACK_MIDGAME * total, ATTACK_ENDGAME * total, phase);
 	}
 
-	private static int pieceValue(Player player) {
+	private static int pieceValue(final Player player, final Board board) {
 		int totalValue = 0;
-		for (final Piece piece : player.getActivePieces()) {
-			totalValue += piece.getValue();
+		for (final PieceType type : PieceType.values()) {
+			totalValue += BitBoards.popCount(board.getBitboard(player.getSide(), type)) * type.getValue();
 		}
 		return totalValue;
 	}
 
-	private static int mobility(Player player) {
-		return 2 * (player.mobility() - player.getOpponent().mobility());
+	private static int mobility(Player player, final int phase) {
+		final int moves = player.mobility() - player.getOpponent().mobility();
+		return PieceSquareTables.taper(MOBILITY_MIDGAME * moves, MOBILITY_ENDGAME * moves, phase);
 	}
 
+	/*
+	 * Not tapered: a check gains a tempo at any stage of the game.
+	 */
 	private static int check(Player player) {
 		return player.getOpponent().inCheck() ? CHECK_BONUS : 0;
 	}
@@ -169,42 +193,43 @@ public final class StandardBoardEvaluator implements BoardEvaluator {
 		return depth == 0 ? 1 : DEPTH_BONUS * 100;
 	}
 
-	private static int castled(Player player) {
-		if (Table.getInstance().getNumMoves() <= 6) return 0;
-		return player.isCastled() ? CASTLE_BONUS : 0;
+	private static int castled(Player player, int plyCount, int phase) {
+		if (plyCount <= CASTLE_BONUS_PLIES) return 0;
+		return player.isCastled() ? castleBonus(phase) : 0;
+	}
+
+	/*
+	 * A castled king is safe from attack, which matters less as pieces come
+	 * off the board.
+	 */
+	private static int castleBonus(final int phase) {
+		return PieceSquareTables.taper(CASTLE_BONUS, 0, phase);
 	}
 
-	//TODO: reimplement using static position-score arrays
 	private static int centerControl(final Player player, final Board board) {
+		final int phase = phase(board);
+		final boolean earlyQueen = isOpening(board.getPlyCount());
 		int controlScore = 0;
-		for (Piece p : player.getActivePieces()) {
-			int index = convertIndex(p.getPosition(), player.getSide());
-			controlScore += positionScore(p, index, board);
+		for (final PieceType type : PieceType.values()) {
+			if (type != PieceType.QUEEN || !earlyQueen) {
+				controlScore += positionScore(type, board.getBitboard(player.getSide(), type), player.getSide(), phase);
+			}
 		}
 		return 2 * controlScore;
 	}
-	
-	private static int positionScore(Piece p, int index, Board board) {
-		switch (p.getType()) {
-		case PAWN:
-			return PAWN_POSITION_SCORES[index];
-		case KNIGHT:
-			return KNIGHT_POSITION_SCORES[index];
-		case BISHOP:
-			return BISHOP_POSITION_SCORES[index];
-		case ROOK:
-			return ROOK_POSITION_SCORES[index];
-		case QUEEN:
-			return queenMovePenalty() != 0 ? 0 : QUEEN_POSITION_SCORES[index];
-		case KING:
-			return inEndgame(board) ? KING_ENDGAME_SCORES[index] : KING_MIDGAME_SCORES[index];
-		default:
-			throw new RuntimeException("Piece type not recognized!");
-		}
-	}
 
-	private static int convertIndex(int index, Side side) {
-		return side.isWhite() ? index : 8 * (7  - index / 8) + index % 8;
+	/*
+	 * Sums the piece-square scores of a bitboard of one side's pieces of one
+	 * type.
+	 */
+	private static int positionScore(final PieceType type, long pieces, final Side side, final int phase) {
+		int score = 0;
+		while (pieces != 0) {
+			final int tile = BitBoards.firstSquare(pieces);
+			pieces &= pieces - 1;
+			score += PieceSquareTables.positionScore(type, side.getEnum(), tile, phase);
+		}
+		return score;
 	}
 
 	private static int development(final Player player, final Board board) {
@@ -218,38 +243,19 @@ public final class StandardBoardEvaluator implements BoardEvaluator {
 		return bonus;
 	}
 
-	private static boolean inEndgame(final Board board) {
-		boolean queenFlag = false;
-		boolean pieceFlag = false;
-		for (Piece p : board.getWhitePieces()) {
-			if (p.getType() == PieceType.QUEEN) {
-				queenFlag = true;
-			} else if (p.getType() != PieceType.PAWN && p.getType() != PieceType.KING) {
-				pieceFlag = true;
-			} 
-			
-			if (queenFlag && pieceFlag) {
-				if (p.getType() != PieceType.PAWN && p.getType() != PieceType.KING) {
-					return false;
-				}
-			}
-		}
-		queenFlag = false;
-		pieceFlag = false;
-		for (Piece p : board.getBlackPieces()) {
-			if (p.getType() == PieceType.QUEEN) {
-				queenFlag = true;
-			} else if (p.getType() != PieceType.PAWN && p.getType() != PieceType.KING) {
-				pieceFlag = true;
-			} 
-			
-			if (queenFlag && pieceFlag) {
-				if (p.getType() != PieceType.PAWN && p.getType() != PieceType.KING) {
-					return false;
-				}
+	/*
+	 * Game phase of a board (see PieceSquareTables), counted from its
+	 * bitboards.
+	 */
+	private static int phase(final Board board) {
+		int phase = 0;
+		for (final Side side : Side.values()) {
+			for (final PieceType type : PieceType.values()) {
+				phase += BitBoards.popCount(board.getBitboard(side, type))
+						* PieceSquareTables.phaseWeight(type.getEnum());
 			}
 		}
-		return true;
+		return phase;
 	}
 
 }
@@ -0,0 +1,160 @@
+package chess.engine.player.ai;
+
+import java.util.Arrays;
+
+/*
+ * Fixed-size transposition table for the search, keyed by SearchBoard's Zobrist hash. It replaces the
+ * unbounded HashMap the GUI used to keep: the table is one long[] allocated up front, sized in MB, and
+ * nothing is boxed.
+ *
+ * The table is an array of buckets of two entries, each entry two longs: the key XORed with the data,
+ * then the data. An entry only matches when (first ^ second) gives back the key, so an entry torn by two
+ * threads writing at once reads as a miss instead of as wrong data, and no locks are needed.
+ *
+ * Data layout, from the lowest bit:
+ *   bits  0 - 24  best move (a PackedMove), or PackedMove.NONE
+ *   bits 25 - 26  bound: EXACT, LOWER or UPPER
+ *   bits 27 - 33  remaining depth
+ *   bits 34 - 39  age: the search the entry was written in, modulo 64
+ *   bits 40 - 63  score, signed
+ *
+ * The first entry of a bucket is depth-preferred: it is only overwritten by the same position, by a
+ * deeper or equally deep search, or once it is left over from an earlier search. Everything else goes
+ * into the second entry, which is always replaced. Entries survive from one move of the game to the
+ * next; newSearch() ages them so they give way to new ones.
+ */
+
+public final class TranspositionTable {
+
+	public static final int DEFAULT_SIZE = 64; // MB
+
+	public static final int EXACT = 0;
+	public static final int LOWER = 1; // the score is at least the stored one (fail high)
+	public static final int UPPER = 2; // the score is at most the stored one (fail low)
+
+	private static final int LONGS_PER_ENTRY = 2;
+	private static final int LONGS_PER_BUCKET = 2 * LONGS_PER_ENTRY;
+	private static final int BYTES_PER_BUCKET = LONGS_PER_BUCKET * Long.BYTES;
+
+	private static final long MOVE_MASK = (1L << 25) - 1;
+	private static final int BOUND_SHIFT = 25;
+	private static final int DEPTH_SHIFT = 27;
+	private static final int AGE_SHIFT = 34;
+	private static final int SCORE_SHIFT = 40;
+	private static final int BOUND_MASK = 0x3;
+	private static final int DEPTH_MASK = 0x7F;
+	private static final int AGE_MASK = 0x3F;
+
+	public static final int MAX_SCORE = (1 << 23) - 1; // largest score that fits in an entry
+
+	private final long[] entries;
+	private final int bucketMask;
+	private int age;
+
+	/*
+	 * CONSTRUCTOR: size in MB, rounded down to a power of two buckets.
+	 */
+
+	public TranspositionTable(final int size) {
+		final long buckets = (long) size * 1024 * 1024 / BYTES_PER_BUCKET;
+		if (buckets < 1) {
+			throw new RuntimeException("Transposition table size must be at least 1 MB!");
+		}
+		final int bucketCount = Integer.highestOneBit((int) Math.min(buckets, 1 << 26));
+		this.entries = new long[bucketCount * LONGS_PER_BUCKET];
+		this.bucketMask = bucketCount - 1;
+	}
+
+	/*
+	 * Starts a new search: entries written from now on are newer than all the
+	 * ones already in the table.
+	 */
+	public void newSearch() {
+		this.age = (this.age + 1) & AGE_MASK;
+	}
+
+	public void clear() {
+		Arrays.fill(this.entries, 0);
+		this.age = 0;
+	}
+
+	/*
+	 * Returns the data stored for the hash, or 0 if there is none. Read it
+	 * with the accessors below; 0 is never stored, since a stored entry always
+	 * has a depth of at least 1.
+	 */
+	public long probe(final long hash) {
+		final int bucket = bucketIndex(hash);
+		for (int entry = bucket; entry < bucket + LONGS_PER_BUCKET; entry += LONGS_PER_ENTRY) {
+			final long data = this.entries[entry + 1];
+			if ((this.entries[entry] ^ data) == hash && data != 0) {
+				return data;
+			}
+		}
+		return 0;
+	}
+
+	/*
+	 * Stores a search result. Scores beyond MAX_SCORE (the search's infinite
+	 * bounds) are not stored.
+	 */
+	public void store(final long hash, final int move, final int score, final int bound, final int depth) {
+		if (score > MAX_SCORE || score < -MAX_SCORE || depth < 1) {
+			return;
+		}
+		final long data = (move & MOVE_MASK) | (long) bound << BOUND_SHIFT
+				| (long) Math.min(depth, DEPTH_MASK) << DEPTH_SHIFT | (long) this.age << AGE_SHIFT
+				| (long) score << SCORE_SHIFT;
+		final int bucket = bucketIndex(hash);
+		final long preferred = this.entries[bucket + 1];
+		final boolean samePosition = (this.entries[bucket] ^ preferred) == hash;
+		final int entry = samePosition || getAge(preferred) != this.age || depth >= getDepth(preferred) ? bucket
+				: bucket + LONGS_PER_ENTRY;
+		this.entries[entry] = hash ^ data;
+		this.entries[entry + 1] = data;
+	}
+
+	/*
+	 * Per-mille of the first 1000 entries written during the current search,
+	 * as a measure of how full the table is.
+	 */
+	public int usage() {
+		final int sample = Math.min(1000, this.entries.length / LONGS_PER_ENTRY);
+		int used = 0;
+		for (int i = 0; i < sample; i++) {
+			final long data = this.entries[i * LONGS_PER_ENTRY + 1];
+			if (data != 0 && getAge(data) == this.age) {
+				used++;
+			}
+		}
+		return used * 1000 / sample;
+	}
+
+	private int bucketIndex(final long hash) {
+		return ((int) (hash ^ (hash >>> 32)) & this.bucketMask) * LONGS_PER_BUCKET;
+	}
+
+	/*
+	 * Accessors for the data returned by probe().
+	 */
+
+	public static int getMove(final long data) {
+		return (int) (data & MOVE_MASK);
+	}
+
+	public static int getBound(final long data) {
+		return (int) (data >>> BOUND_SHIFT) & BOUND_MASK;
+	}
+
+	public static int getDepth(final long data) {
+		return (int) (data >>> DEPTH_SHIFT) & DEPTH_MASK;
+	}
+
+	public static int getScore(final long data) {
+		return (int) (data >> SCORE_SHIFT);
+	}
+
+	private static int getAge(final long data) {
+		return (int) (data >>> AGE_SHIFT) & AGE_MASK;
+	}
+}
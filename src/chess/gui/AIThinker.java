@@ -1,4 +1,4 @@
-package chess.engine.player.ai;
+package chess.gui;
 
 import java.util.concurrent.ExecutionException;
 
@@ -6,12 +6,27 @@ import javax.swing.SwingWorker;
 
 import chess.engine.board.Board;
 import chess.engine.board.Move;
-import chess.gui.Table;
+import chess.engine.player.ai.EvaluationCache;
+import chess.engine.player.ai.MiniMax;
+import chess.engine.player.ai.TranspositionTable;
 import chess.gui.Table.PlayerType;
 
 public class AIThinker extends SwingWorker<Move, String> {
 	
-	public static final int SEARCH_DEPTH = 6;
+	public static final long THINKING_TIME = 5000; // ms per move
+	public static final int THREADS = Runtime.getRuntime().availableProcessors(); // search threads per move
+
+	// shared by every move of the game, so each search starts from what the previous ones found
+	private static final TranspositionTable TRANSPOSITION_TABLE = new TranspositionTable(
+			TranspositionTable.DEFAULT_SIZE);
+	private static final EvaluationCache EVALUATION_CACHE = new EvaluationCache(EvaluationCache.DEFAULT_SIZE);
+	// one search for the whole game, so its helpers are only made for the first move
+	private static final MiniMax ALGORITHM = new MiniMax(MiniMax.MAX_DEPTH, THINKING_TIME, TRANSPOSITION_TABLE,
+			EVALUATION_CACHE);
+
+	static {
+		ALGORITHM.setThreads(THREADS);
+	}
 
 //	private boolean instanceExists;
 
@@ -20,14 +35,17 @@ public class AIThinker extends SwingWorker<Move, String> {
 	}
 
 	/*
-	 * Invokes move strategy algorithm on a new thread.
+	 * Invokes move strategy algorithm on a new thread. A MiniMax searches one
+	 * board at a time, so a second AIThinker waits for the first.
 	 */
 
 	@Override
 	protected Move doInBackground() throws Exception {
 //		if (!instanceExists) 
-			final MoveStrategy algorithm = new MiniMax(SEARCH_DEPTH);
-			final Move bestMove = algorithm.execute(Table.getInstance().getBoard());
+			final Move bestMove;
+			synchronized (ALGORITHM) {
+				bestMove = ALGORITHM.execute(Table.getInstance().getBoard());
+			}
 			System.out.println("Selected move " + bestMove);
 			return bestMove;
 //		}
@@ -16,7 +16,6 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Observable;
 import java.util.Observer;
@@ -35,10 +34,8 @@ import chess.engine.board.Move.PawnPromotion;
 import chess.engine.board.Tile;
 import chess.engine.pieces.Piece;
 import chess.engine.pieces.Piece.PieceType;
-import chess.engine.player.MoveStatus;
 import chess.engine.player.MoveTransition;
 import chess.engine.player.Player;
-import chess.engine.player.ai.AIThinker;
 
 public class Table extends Observable {
 
@@ -54,7 +51,6 @@ public class Table extends Observable {
 	private List<Board> previousPositions;
 	private long currentHash;
 	private int numMoves;
-	private static int collisions;
 
 	private Tile startTile;
 	private Tile endTile;
@@ -74,8 +70,6 @@ public class Table extends Observable {
 	private final int TILE_SIZE = 60;
 	private final int HIGHLIGHT_OFFSET = 18;
 
-	public static HashMap<Long, Integer> SEEN_POSITIONS = new HashMap<>();
-
 	private static final Table INSTANCE = new Table();
 
 	private Table() {
@@ -434,7 +428,7 @@ public class Table extends Observable {
 									previousPositions.add(chessboard);
 									movelog.addMove(move);
 									lastMove = move;
-									currentHash = ZobristHash.updateZobristHash(currentHash, move);
+									currentHash = chessboard.getHash();
 									move.getMovedPiece().hasNowMoved();
 									
 									numMoves++;
@@ -542,8 +536,8 @@ public class Table extends Observable {
 			if (highlightLegalMoves && humanMovedPiece != null) {
 				List<Move> legalMoves = (List<Move>) pieceLegalMoves(board);
 				for (final Move move : legalMoves) {
-					if (BoardUtils.mailbox[move.getDestination()] == this.tileID && board.currentPlayer().makeMove(move)
-							.getMoveStatus() != MoveStatus.LEAVES_PLAYER_IN_CHECK) {
+					if (BoardUtils.mailbox[move.getDestination()] == this.tileID
+							&& !board.currentPlayer().leavesKingInCheck(move)) {
 						try {
 							BufferedImage highlight = ImageIO.read(new File("res/dot.png"));
 							tile.drawImage(highlight, HIGHLIGHT_OFFSET, HIGHLIGHT_OFFSET, null);
@@ -616,13 +610,6 @@ public class Table extends Observable {
 		public abstract List<TilePanel> traverse(final List<TilePanel> board);
 	}
 
-	public static void incrementCollisions() {
-		collisions++;
-	}
-
-	public static int getCollisions() {
-		return collisions;
-	}
 
 
 
@@ -0,0 +1,81 @@
+package unittests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import chess.engine.Side;
+import chess.engine.board.BitBoards;
+import chess.engine.board.Board;
+import chess.engine.board.BoardUtils;
+import chess.engine.board.MagicBitboards;
+import chess.engine.pieces.Piece;
+import chess.engine.pieces.Piece.PieceType;
+
+public class BitBoardsTest {
+
+	@Test
+	public void initialOccupancy() {
+		Board board = Board.createStandardBoard();
+		assertEquals(16, BitBoards.popCount(board.getOccupancy(Side.WHITE)));
+		assertEquals(16, BitBoards.popCount(board.getOccupancy(Side.BLACK)));
+		assertEquals(0xFFFFL, board.getOccupancy(Side.BLACK)); // ranks 8 and 7
+		assertEquals(0xFFFFL << 48, board.getOccupancy(Side.WHITE)); // ranks 2 and 1
+		assertEquals(0L, board.getOccupancy(Side.WHITE) & board.getOccupancy(Side.BLACK));
+
+		assertEquals(BitBoards.squareBit(60), board.getBitboard(Side.WHITE, PieceType.KING));
+		assertEquals(BitBoards.squareBit(4), board.getBitboard(Side.BLACK, PieceType.KING));
+		assertEquals(8, BitBoards.popCount(board.getBitboard(Side.WHITE, PieceType.PAWN)));
+
+		// every set bit matches the tile list
+		for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+			Piece piece = board.getTile(tile).getPiece();
+			assertEquals(piece != null, BitBoards.isSet(board.getOccupancy(), tile));
+			if (piece != null) {
+				assertTrue(BitBoards.isSet(board.getBitboard(piece.getSide(), piece.getType()), tile));
+			}
+		}
+	}
+
+	@Test
+	public void leaperAttacks() {
+		// corners and centre
+		assertEquals(2, BitBoards.popCount(BitBoards.KNIGHT_ATTACKS[0]));
+		assertEquals(8, BitBoards.popCount(BitBoards.KNIGHT_ATTACKS[BoardUtils.mailbox[BoardUtils.getAt("e4")]]));
+		assertEquals(3, BitBoards.popCount(BitBoards.KING_ATTACKS[63]));
+		assertEquals(8, BitBoards.popCount(BitBoards.KING_ATTACKS[BoardUtils.mailbox[BoardUtils.getAt("d5")]]));
+
+		// pawns capture diagonally forward and never wrap around the board edge
+		int a2 = BoardUtils.mailbox[BoardUtils.getAt("a2")];
+		assertEquals(BitBoards.squareBit(BoardUtils.mailbox[BoardUtils.getAt("b3")]), BitBoards.PAWN_ATTACKS[0][a2]);
+		int h7 = BoardUtils.mailbox[BoardUtils.getAt("h7")];
+		assertEquals(BitBoards.squareBit(BoardUtils.mailbox[BoardUtils.getAt("g6")]), BitBoards.PAWN_ATTACKS[1][h7]);
+	}
+
+	@Test
+	public void slidingAttacks() {
+		// empty board: a rook always sees 14 tiles, a bishop in a corner sees 7
+		for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+			assertEquals(14, BitBoards.popCount(MagicBitboards.rookAttacks(tile, 0L)));
+		}
+		assertEquals(7, BitBoards.popCount(MagicBitboards.bishopAttacks(0, 0L)));
+		assertEquals(27, BitBoards.popCount(MagicBitboards.queenAttacks(BoardUtils.mailbox[BoardUtils.getAt("d4")], 0L)));
+
+		// initial position: sliders are boxed in by their own pieces
+		Board board = Board.createStandardBoard();
+		int d1 = BoardUtils.mailbox[BoardUtils.getAt("d1")];
+		assertEquals(0L, MagicBitboards.queenAttacks(d1, board.getOccupancy()) & ~board.getOccupancy());
+
+		// rays stop at (and include) the first blocker
+		long occupancy = BitBoards.squareBit(BoardUtils.mailbox[BoardUtils.getAt("e6")])
+				| BitBoards.squareBit(BoardUtils.mailbox[BoardUtils.getAt("c4")]);
+		long attacks = MagicBitboards.rookAttacks(BoardUtils.mailbox[BoardUtils.getAt("e4")], occupancy);
+		assertTrue(BitBoards.isSet(attacks, BoardUtils.mailbox[BoardUtils.getAt("e6")]));
+		assertFalse(BitBoards.isSet(attacks, BoardUtils.mailbox[BoardUtils.getAt("e7")]));
+		assertTrue(BitBoards.isSet(attacks, BoardUtils.mailbox[BoardUtils.getAt("c4")]));
+		assertFalse(BitBoards.isSet(attacks, BoardUtils.mailbox[BoardUtils.getAt("b4")]));
+		assertTrue(BitBoards.isSet(attacks, BoardUtils.mailbox[BoardUtils.getAt("h4")]));
+		assertTrue(BitBoards.isSet(attacks, BoardUtils.mailbox[BoardUtils.getAt("e1")]));
+	}
+
+}
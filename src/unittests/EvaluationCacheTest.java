@@ -0,0 +1,60 @@
+package unittests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import chess.engine.board.Board;
+import chess.engine.board.BoardUtils;
+import chess.engine.board.SearchBoard;
+import chess.engine.player.ai.EvaluationCache;
+import chess.engine.player.ai.StandardBoardEvaluator;
+
+public class EvaluationCacheTest {
+
+	@Test
+	public void storeAndProbe() {
+		EvaluationCache cache = new EvaluationCache(1);
+		cache.store(0x123456789ABCDEFL, -250);
+		assertEquals(-250, EvaluationCache.getScore(cache.probe(0x123456789ABCDEFL)));
+		assertEquals(0, cache.probe(0x123456789ABCDEEL));
+
+		// a score of 0 is still a hit, and an empty entry never is, even for key 0
+		assertEquals(0, cache.probe(0L));
+		cache.store(0L, 0);
+		assertFalse(cache.probe(0L) == 0);
+		assertEquals(0, EvaluationCache.getScore(cache.probe(0L)));
+
+		// always replace: a key folding to the same entry evicts the old one
+		long other = 0x123456789ABCDEFL ^ (1L << 40) ^ (1L << 8);
+		cache.store(other, 75);
+		assertEquals(75, EvaluationCache.getScore(cache.probe(other)));
+		assertEquals(0, cache.probe(0x123456789ABCDEFL));
+
+		cache.clear();
+		assertEquals(0, cache.probe(other));
+	}
+
+	@Test
+	public void cachedScoreBelongsToThePosition() {
+		StandardBoardEvaluator evaluator = new StandardBoardEvaluator();
+
+		// the same pieces, rights and side to move, but only one king got there by castling
+		SearchBoard walked = new SearchBoard(Board.parseFEN("r3k2r/8/8/8/8/8/8/R4RK1 b kq - 0 10"));
+		SearchBoard castled = new SearchBoard(Board.parseFEN("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 10"));
+		castled.make(castled.createMove(BoardUtils.mailbox[BoardUtils.getAt("e1")],
+				BoardUtils.mailbox[BoardUtils.getAt("g1")], 0));
+		assertEquals(walked.getHash(), castled.getHash());
+		assertEquals(evaluator.evaluate(walked), evaluator.evaluate(castled));
+		assertTrue(evaluator.evaluateGamePly(castled) > evaluator.evaluateGamePly(walked));
+
+		// the same position early and late in the game, with the queen already out
+		String fen = "rnb1kbnr/pppp1ppp/5q2/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 ";
+		SearchBoard early = new SearchBoard(Board.parseFEN(fen + "3"));
+		SearchBoard late = new SearchBoard(Board.parseFEN(fen + "30"));
+		assertEquals(early.getHash(), late.getHash());
+		assertEquals(evaluator.evaluate(early), evaluator.evaluate(late));
+		assertFalse(evaluator.evaluateGamePly(early) == evaluator.evaluateGamePly(late));
+	}
+
+}
@@ -11,14 +11,12 @@ import chess.engine.board.Move;
 import chess.engine.player.MoveTransition;
 import chess.engine.player.ai.MiniMax;
 import chess.engine.player.ai.MoveStrategy;
-import chess.gui.Table;
 
 public class FoolsMateTest {
 
 	@Test/*(timeout = 100000)*/
 	public void testAI() {
 		final Board board = Board.createStandardBoard();
-		ZobristHash.fillArray();
 		long hash = ZobristHash.getZobristHash(board);
 		board.setInitialHashValue();
 		
@@ -32,7 +30,6 @@ public class FoolsMateTest {
 	public void testFoolsMate() {
 		//these four lines of code are as of now idiomatic. I am trying to find a way to simplify this.
 		final Board board = Board.createStandardBoard();
-		ZobristHash.fillArray();
 		long hash = ZobristHash.getZobristHash(board);
 		board.setInitialHashValue();
 		
@@ -0,0 +1,51 @@
+package unittests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import chess.engine.board.Board;
+import chess.engine.board.Move;
+import chess.engine.player.ai.MiniMax;
+
+public class FrontierPruningTest {
+
+	// black has given up its queen for nothing and has no capture to win anything back
+	private static final String QUEEN_DOWN = "rnb1kbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 3";
+
+	@Test
+	public void quietMovesFarBelowAlpha() {
+		final Board board = Board.parseFEN(QUEEN_DOWN);
+		final MiniMax unpruned = new MiniMax(3);
+		unpruned.setFutilityMargins();
+		unpruned.setRazorMargins();
+		final Move move = unpruned.execute(board);
+		assertEquals(0, unpruned.getFrontierPrunes());
+
+		final MiniMax futility = new MiniMax(3);
+		futility.setFutilityMargins(200);
+		futility.setRazorMargins();
+		assertEquals(move, futility.execute(board));
+		assertEquals(unpruned.getFinalScore(), futility.getFinalScore());
+		assertTrue(futility.getFrontierPrunes() > 0);
+		assertTrue(futility.getBoardsEvaluted() < unpruned.getBoardsEvaluted());
+
+		// a margin no evaluation can make up for turns futility pruning off but keeps razoring's depth
+		final MiniMax razoring = new MiniMax(3);
+		razoring.setFutilityMargins(100000);
+		razoring.setRazorMargins(-100000);
+		razoring.execute(board);
+		assertTrue(razoring.getFrontierPrunes() > 0);
+	}
+
+	@Test
+	public void nodesInCheckAreNotPruned() {
+		// white's only moves are the two knight checks, so every node at depth 1 is in check
+		final Board board = Board.parseFEN("3r4/8/8/8/4k3/p2b4/P7/K6N w - - 0 1");
+		final MiniMax search = new MiniMax(2);
+		search.setFutilityMargins(-100000); // would prune every quiet move anywhere else
+		search.setRazorMargins();
+		search.execute(board);
+		assertEquals(0, search.getFrontierPrunes());
+	}
+}
@@ -10,6 +10,7 @@ import chess.engine.Side;
 import chess.engine.board.Board;
 import chess.engine.board.BoardUtils;
 import chess.engine.board.Move;
+import chess.engine.board.SearchBoard;
 import chess.engine.board.Tile;
 import chess.engine.pieces.King;
 import chess.engine.pieces.Piece;
@@ -110,4 +111,15 @@ public class InitialBoardTest {
 		}
 	}
 
+	@Test
+	public void plyCount() {
+		assertEquals(0, board.getPlyCount());
+		final Board e4 = board.currentPlayer()
+				.makeMove(Move.MoveFactory.createMove(board, BoardUtils.getAt("e2"), BoardUtils.getAt("e4"))).getBoard();
+		assertEquals(1, e4.getPlyCount());
+		assertEquals(e4.getPlyCount(), new SearchBoard(e4).getGamePly());
+		// the FEN move number counts full moves, starting from 1
+		assertEquals(5, Board.parseFEN("rnbqkbnr/pp1ppppp/8/2p5/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 3").getPlyCount());
+	}
+
 }
@@ -0,0 +1,29 @@
+package unittests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import chess.engine.board.Board;
+import chess.engine.board.Move;
+import chess.engine.player.ai.MiniMax;
+
+public class LateMoveReductionTest {
+
+	@Test
+	public void sameMoveFewerNodes() {
+		final String[] fens = {
+				// Bxg5 wins the queen
+				"r1b1kbnr/pppp1ppp/2n5/4p1q1/3PP3/5N2/PPP2PPP/RNBQKB1R w KQkq - 1 4",
+				"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1" };
+		for (final String fen : fens) {
+			final Board board = Board.parseFEN(fen);
+			final MiniMax reduced = new MiniMax(6);
+			final Move move = reduced.execute(board);
+			final MiniMax full = new MiniMax(6);
+			full.setLateMoveReductions(false);
+			assertEquals(full.execute(board), move);
+			assertTrue(reduced.getBoardsEvaluted() < full.getBoardsEvaluted());
+		}
+	}
+}
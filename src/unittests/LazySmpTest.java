@@ -0,0 +1,29 @@
+package unittests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import chess.engine.board.Board;
+import chess.engine.board.Move;
+import chess.engine.player.ai.MiniMax;
+
+public class LazySmpTest {
+
+	@Test
+	public void helpersKeepTheResultInTheWindow() {
+		final Board board = Board.parseFEN("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+		final MiniMax single = new MiniMax(5);
+		single.execute(board);
+		final int expected = single.getFinalScore();
+
+		final MiniMax search = new MiniMax(5);
+		search.setThreads(3);
+		// twice, the second time with the helpers made by the first
+		for (int i = 0; i < 2; i++) {
+			final Move move = search.execute(board);
+			assertTrue(board.currentPlayer().getLegalMoves().contains(move));
+			assertTrue(Math.abs(search.getFinalScore() - expected) <= MiniMax.WINDOW);
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package unittests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import chess.engine.board.Board;
+import chess.engine.board.BoardUtils;
+import chess.engine.board.MoveList;
+import chess.engine.board.PackedMove;
+import chess.engine.board.SearchBoard;
+import chess.engine.player.ai.MovePicker;
+import chess.engine.player.ai.SearchHistory;
+
+public class MovePickerTest {
+
+	private static int move(final SearchBoard board, final String from, final String to) {
+		return board.createMove(BoardUtils.mailbox[BoardUtils.getAt(from)], BoardUtils.mailbox[BoardUtils.getAt(to)], 0);
+	}
+
+	@Test
+	public void killersAndCounterMovesComeBeforeOtherQuiets() {
+		final SearchBoard board = new SearchBoard(Board.createStandardBoard());
+		board.make(move(board, "g1", "f3"));
+		final int b8c6 = move(board, "b8", "c6");
+		board.make(b8c6);
+		// white to move, with no captures, so every move is quiet
+		final int white = board.getSideToMove();
+		final int a2a3 = move(board, "a2", "a3");
+		final int h2h3 = move(board, "h2", "h3");
+		final int d2d4 = move(board, "d2", "d4");
+
+		final SearchHistory history = new SearchHistory(8);
+		history.updateCutoff(white, 5, a2a3, PackedMove.NONE, 12, new int[0], 0); // best history score
+		history.updateCutoff(white, 2, h2h3, PackedMove.NONE, 1, new int[0], 0); // killer at ply 2
+		history.updateCutoff(white, 6, d2d4, b8c6, 1, new int[0], 0); // countermove to b8c6
+
+		final MovePicker picker = MovePicker.createStack(1)[0];
+		picker.init(board, PackedMove.NONE, history, 2, PackedMove.NONE);
+		assertEquals(h2h3, picker.next());
+		assertEquals(a2a3, picker.next());
+
+		// no killers at ply 3, but the countermove to the opponent's last move
+		picker.init(board, PackedMove.NONE, history, 3, b8c6);
+		assertEquals(d2d4, picker.next());
+		assertEquals(a2a3, picker.next());
+		int count = 2;
+		for (int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+			assertNotEquals(d2d4, move);
+			assertNotEquals(a2a3, move);
+			count++;
+		}
+		final MoveList legal = new MoveList();
+		board.generateLegalMoves(legal);
+		assertEquals(legal.size(), count);
+	}
+}
@@ -2,6 +2,9 @@ package unittests;
 
 import static org.junit.Assert.*;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.junit.Test;
 
 import chess.engine.board.Board;
@@ -18,4 +21,15 @@ public class MoveTests {
 		assertTrue(m1.equals(m2));
 	}
 
+	@Test
+	public void nullMovesHash() {
+		Board test = Board.createStandardBoard();
+		Move passed = Move.MoveFactory.createNullMove(test);
+		assertEquals(Move.NULL_MOVE, passed);
+		assertEquals(Move.NULL_MOVE.hashCode(), passed.hashCode());
+		Set<Move> moves = new HashSet<>();
+		moves.add(Move.NULL_MOVE);
+		assertTrue(moves.contains(passed));
+	}
+
 }
@@ -0,0 +1,32 @@
+package unittests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import chess.engine.board.Board;
+import chess.engine.board.Perft;
+import chess.engine.board.Perft.Position;
+
+public class PerftTest {
+
+	@Test
+	public void referencePositions() {
+		Perft perft = new Perft(true, 0, 1);
+		for (Position position : Position.values()) {
+			assertEquals(position.expectedNodes(3), perft.perft(Board.parseFEN(position.getFEN()), 3));
+		}
+	}
+
+	@Test
+	public void modesAgree() {
+		Board board = Board.parseFEN(Position.KIWIPETE.getFEN());
+		long[] plain = new Perft(false, 0, 1).divide(board, 3);
+		long[] hashed = new Perft(true, 1, 1).divide(board, 3);
+		long[] threaded = new Perft(true, 1, 4).divide(board, 3);
+		assertArrayEquals(plain, hashed);
+		assertArrayEquals(plain, threaded);
+		assertEquals(Position.KIWIPETE.expectedNodes(3), new Perft(false, 1, 4).perft(board, 3));
+	}
+
+}
@@ -0,0 +1,31 @@
+package unittests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import chess.engine.board.Board;
+import chess.engine.board.Move;
+import chess.engine.player.ai.MiniMax;
+
+public class RootSplittingTest {
+
+	@Test
+	public void sameResultOnAnyNumberOfThreads() {
+		final Board board = Board.parseFEN("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+		Move expected = null;
+		String expectedPV = null;
+		for (int threads = 1; threads <= 4; threads++) {
+			final MiniMax search = new MiniMax(5);
+			search.setThreads(threads);
+			search.setDeterministic(true);
+			final Move move = search.execute(board);
+			if (expected == null) {
+				expected = move;
+				expectedPV = search.principalVariation();
+			}
+			assertEquals(expected, move);
+			assertEquals(expectedPV, search.principalVariation());
+		}
+	}
+}
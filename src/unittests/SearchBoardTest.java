@@ -0,0 +1,217 @@
+package unittests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import chess.engine.Side;
+import chess.engine.board.BitBoards;
+import chess.engine.board.Board;
+import chess.engine.board.BoardUtils;
+import chess.engine.board.Move;
+import chess.engine.board.MoveList;
+import chess.engine.board.PackedMove;
+import chess.engine.board.PieceSquareTables;
+import chess.engine.board.SearchBoard;
+import chess.engine.pieces.Piece;
+
+public class SearchBoardTest {
+
+	/*
+	 * Counts the leaf nodes of the legal move tree, checking at every node that
+	 * the incremental hash and evaluation sums match a full recomputation and
+	 * that unmake() restores the position.
+	 */
+	private static long perft(final SearchBoard board, final int depth) {
+		if (depth == 0) {
+			return 1;
+		}
+		long nodes = 0;
+		final String position = board.toString();
+		final long hash = board.getHash();
+		final MoveList moves = new MoveList();
+		board.generateLegalMoves(moves);
+		for (int i = 0; i < moves.size(); i++) {
+			final int move = moves.get(i);
+			board.make(move);
+			assertTrue(board.isLegalPosition());
+			assertEquals(board.computeHash(), board.getHash());
+			assertScores(board);
+			nodes += perft(board, depth - 1);
+			board.unmake(move);
+			assertEquals(hash, board.getHash());
+			assertEquals(position, board.toString());
+		}
+		return nodes;
+	}
+
+	private static void assertScores(final SearchBoard board) {
+		int material = 0;
+		int midgame = 0;
+		int endgame = 0;
+		int phase = 0;
+		for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+			final int piece = board.getPiece(tile);
+			if (piece != SearchBoard.NO_PIECE) {
+				material += PieceSquareTables.materialScore(piece);
+				midgame += PieceSquareTables.midgameScore(piece, tile);
+				endgame += PieceSquareTables.endgameScore(piece, tile);
+				phase += PieceSquareTables.phaseWeight(piece);
+			}
+		}
+		assertEquals(material, board.getMaterial());
+		assertEquals(midgame, board.getMidgameScore());
+		assertEquals(endgame, board.getEndgameScore());
+		assertEquals(phase, board.getPhase());
+	}
+
+	private static MoveList legalMoves(final SearchBoard board) {
+		final MoveList legal = new MoveList();
+		board.generateLegalMoves(legal);
+		return legal;
+	}
+
+	@Test
+	public void initialPosition() {
+		SearchBoard board = new SearchBoard(Board.createStandardBoard());
+		assertEquals(20, legalMoves(board).size());
+		assertEquals(PieceSquareTables.MAX_PHASE, board.getPhase());
+		assertEquals(8902, perft(board, 3));
+	}
+
+	@Test
+	public void specialMoves() {
+		// "kiwipete": castling both ways, en passant and promotions all show up by depth 3
+		SearchBoard board = new SearchBoard(
+				Board.parseFEN("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"));
+		assertEquals(48, legalMoves(board).size());
+		assertEquals(97862, perft(board, 3));
+	}
+
+	@Test
+	public void castlingRights() {
+		SearchBoard board = new SearchBoard(Board.parseFEN("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1"));
+		int h1 = BoardUtils.mailbox[BoardUtils.getAt("h1")];
+		int h8 = BoardUtils.mailbox[BoardUtils.getAt("h8")];
+
+		// Rxh8 takes away white's and black's kingside rights
+		int rxh8 = board.createMove(h1, h8, 0);
+		assertEquals(BitBoards.pieceIndex(Side.BLACK.getEnum(), Piece.ROOK_INDEX), PackedMove.getCaptured(rxh8));
+		board.make(rxh8);
+		assertEquals(BoardUtils.WHITE_QUEENSIDE | BoardUtils.BLACK_QUEENSIDE, board.getCastlingRights());
+		board.unmake(rxh8);
+		assertEquals(BoardUtils.ALL_CASTLING_RIGHTS, board.getCastlingRights());
+	}
+
+	@Test
+	public void moveAdapters() {
+		Board board = Board.parseFEN("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+		MoveList legal = legalMoves(new SearchBoard(board));
+		for (int i = 0; i < legal.size(); i++) {
+			Move move = PackedMove.toMove(board, legal.get(i));
+			assertNotEquals(Move.NULL_MOVE, move);
+			assertEquals(legal.get(i), PackedMove.fromMove(move));
+		}
+	}
+
+	@Test
+	public void stagedGeneration() {
+		SearchBoard board = new SearchBoard(
+				Board.parseFEN("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1"));
+		MoveList all = new MoveList();
+		board.generateLegalMoves(all);
+		MoveList captures = new MoveList();
+		board.generateLegalCaptures(captures);
+		MoveList quiets = new MoveList();
+		board.generateLegalQuiets(quiets);
+		assertEquals(all.size(), captures.size() + quiets.size());
+
+		for (int i = 0; i < captures.size(); i++) {
+			int move = captures.get(i);
+			assertTrue(PackedMove.isCapture(move) || PackedMove.isPromotion(move));
+			assertTrue(board.isPseudoLegal(move));
+		}
+		for (int i = 0; i < quiets.size(); i++) {
+			int move = quiets.get(i);
+			assertFalse(PackedMove.isCapture(move) || PackedMove.isPromotion(move));
+			assertTrue(board.isPseudoLegal(move));
+		}
+
+		// a move from another position is rejected
+		int b1 = BoardUtils.mailbox[BoardUtils.getAt("b1")];
+		int c3 = BoardUtils.mailbox[BoardUtils.getAt("c3")];
+		assertFalse(board.isPseudoLegal(new SearchBoard(Board.createStandardBoard()).createMove(b1, c3, 0)));
+	}
+
+	/*
+	 * Counts leaf nodes with the legal generator alone, which must never
+	 * produce a move that leaves the king in check.
+	 */
+	private static long legalPerft(final SearchBoard board, final int depth) {
+		final MoveList moves = legalMoves(board);
+		if (depth == 1) {
+			return moves.size();
+		}
+		long nodes = 0;
+		for (int i = 0; i < moves.size(); i++) {
+			board.make(moves.get(i));
+			assertTrue(board.isLegalPosition());
+			nodes += legalPerft(board, depth - 1);
+			board.unmake(moves.get(i));
+		}
+		return nodes;
+	}
+
+	@Test
+	public void legalGeneration() {
+		// pins, discovered checks and an en passant capture that exposes the king along a rank
+		assertEquals(674624, legalPerft(new SearchBoard(Board.parseFEN("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1")), 5));
+		// checks and promotions right from the start
+		SearchBoard board = new SearchBoard(
+				Board.parseFEN("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1"));
+		assertEquals(422333, legalPerft(board, 4));
+
+		MoveList captures = new MoveList();
+		board.generateLegalCaptures(captures);
+		MoveList quiets = new MoveList();
+		board.generateLegalQuiets(quiets);
+		assertEquals(legalMoves(board).size(), captures.size() + quiets.size());
+	}
+
+	@Test
+	public void evasions() {
+		// double check by knight and rook: only the king may move
+		SearchBoard board = new SearchBoard(Board.parseFEN("4r2k/8/8/8/8/3n4/8/R3K2R w KQ - 0 1"));
+		assertTrue(board.inCheck());
+		MoveList evasions = new MoveList();
+		board.generateEvasions(evasions);
+		for (int i = 0; i < evasions.size(); i++) {
+			assertEquals(Piece.KING_INDEX, PackedMove.getPiece(evasions.get(i)) % 6);
+		}
+		assertEquals(3, evasions.size());
+	}
+
+	@Test
+	public void nullMove() {
+		// black has just played d7d5, so white could capture en passant
+		Board board = Board.parseFEN("rnbqkbnr/ppp1pppp/8/3pP3/8/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 2");
+		SearchBoard searchBoard = new SearchBoard(board);
+		long hash = searchBoard.getHash();
+		String position = searchBoard.toString();
+
+		searchBoard.makeNullMove();
+		assertEquals(Side.BLACK.getEnum(), searchBoard.getSideToMove());
+		assertEquals(SearchBoard.NO_SQUARE, searchBoard.getEnPassantSquare());
+		assertEquals(searchBoard.computeHash(), searchBoard.getHash());
+		searchBoard.unmakeNullMove();
+		assertEquals(hash, searchBoard.getHash());
+		assertEquals(position, searchBoard.toString());
+
+		// the Board null move passes the turn the same way
+		Board passed = Move.MoveFactory.createNullMove(board).execute();
+		assertTrue(passed.currentPlayer().getSide().isBlack());
+		assertNull(passed.getEnPassantPawn());
+		assertEquals(board.getCastlingRights(), passed.getCastlingRights());
+	}
+
+}
@@ -0,0 +1,60 @@
+package unittests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import chess.engine.board.Board;
+import chess.engine.board.BoardUtils;
+import chess.engine.board.MoveList;
+import chess.engine.board.SearchBoard;
+import chess.engine.board.StaticExchange;
+
+public class StaticExchangeTest {
+
+	private static int move(final SearchBoard board, final String start, final String destination) {
+		return board.createMove(BoardUtils.mailbox[BoardUtils.getAt(start)],
+				BoardUtils.mailbox[BoardUtils.getAt(destination)], 0);
+	}
+
+	@Test
+	public void exchanges() {
+		// an undefended pawn
+		SearchBoard board = new SearchBoard(Board.parseFEN("1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - - 0 1"));
+		assertEquals(100, StaticExchange.see(board, move(board, "e1", "e5")));
+
+		// NxP NxN RxN BxR QxB QxQ, with the rook and both queens joining through x-rays
+		board = new SearchBoard(Board.parseFEN("1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3 w - - 0 1"));
+		assertEquals(-220, StaticExchange.see(board, move(board, "d3", "e5")));
+		assertTrue(StaticExchange.seeGE(board, move(board, "d3", "e5"), -220));
+		assertFalse(StaticExchange.seeGE(board, move(board, "d3", "e5"), -219));
+
+		// a quiet move onto a tile a pawn guards loses the piece
+		board = new SearchBoard(Board.parseFEN("4k3/8/3p4/8/8/8/8/2B1K3 w - - 0 1"));
+		assertEquals(-330, StaticExchange.see(board, move(board, "c1", "e5")));
+		assertEquals(0, StaticExchange.see(board, move(board, "c1", "d2")));
+
+		// the king may not recapture on a defended tile
+		board = new SearchBoard(Board.parseFEN("4k3/4r3/8/8/8/8/3r4/4K3 b - - 0 1"));
+		assertEquals(0, StaticExchange.see(board, move(board, "d2", "e2")));
+		board = new SearchBoard(Board.parseFEN("4k3/8/8/8/8/8/3r4/4K3 b - - 0 1"));
+		assertEquals(-500, StaticExchange.see(board, move(board, "d2", "e2")));
+	}
+
+	@Test
+	public void thresholdAgrees() {
+		final String[] positions = { "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+				"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+				"rnbqkbnr/ppp1pppp/8/3pP3/8/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 2" };
+		for (final String position : positions) {
+			final SearchBoard board = new SearchBoard(Board.parseFEN(position));
+			final MoveList moves = new MoveList();
+			board.generateLegalMoves(moves);
+			for (int i = 0; i < moves.size(); i++) {
+				final int see = StaticExchange.see(board, moves.get(i));
+				assertTrue(StaticExchange.seeGE(board, moves.get(i), see));
+				assertFalse(StaticExchange.seeGE(board, moves.get(i), see + 1));
+			}
+		}
+	}
+}
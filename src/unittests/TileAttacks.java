@@ -17,7 +17,6 @@ public class TileAttacks {
 	@Test
 	public void test() {
 		Board board = Board.createStandardBoard();
-		ZobristHash.fillArray();
 		long hash = ZobristHash.getZobristHash(board);
 		
 		for (int i = 0; i < 64; i++) 
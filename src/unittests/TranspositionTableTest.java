@@ -0,0 +1,53 @@
+package unittests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import chess.engine.board.PackedMove;
+import chess.engine.player.ai.TranspositionTable;
+
+public class TranspositionTableTest {
+
+	@Test
+	public void storeAndProbe() {
+		TranspositionTable table = new TranspositionTable(1);
+		int move = PackedMove.create(52, 36, 0, 12, PackedMove.PAWN_JUMP, 0);
+		table.store(0x123456789ABCDEFL, move, -250, TranspositionTable.LOWER, 7);
+
+		long entry = table.probe(0x123456789ABCDEFL);
+		assertEquals(move, TranspositionTable.getMove(entry));
+		assertEquals(-250, TranspositionTable.getScore(entry));
+		assertEquals(TranspositionTable.LOWER, TranspositionTable.getBound(entry));
+		assertEquals(7, TranspositionTable.getDepth(entry));
+		assertEquals(0, table.probe(0x123456789ABCDEEL));
+
+		// infinite bounds are not stored
+		table.store(42L, move, Integer.MAX_VALUE, TranspositionTable.UPPER, 3);
+		assertEquals(0, table.probe(42L));
+	}
+
+	@Test
+	public void replacement() {
+		TranspositionTable table = new TranspositionTable(1);
+		// different keys that fold to the same bucket
+		long deep = 5L;
+		long shallow = 5L ^ (1L << 40) ^ (1L << 8);
+		long other = 5L ^ (1L << 41) ^ (1L << 9);
+		table.store(deep, PackedMove.NONE, 10, TranspositionTable.EXACT, 8);
+		table.store(shallow, PackedMove.NONE, 20, TranspositionTable.EXACT, 2);
+		table.store(other, PackedMove.NONE, 30, TranspositionTable.EXACT, 3);
+
+		// the deep entry is kept, the always-replace slot holds the newest
+		assertEquals(10, TranspositionTable.getScore(table.probe(deep)));
+		assertEquals(0, table.probe(shallow));
+		assertEquals(30, TranspositionTable.getScore(table.probe(other)));
+
+		// after a new search the old deep entry gives way
+		table.newSearch();
+		table.store(shallow, PackedMove.NONE, 20, TranspositionTable.EXACT, 1);
+		assertEquals(0, table.probe(deep));
+		assertEquals(20, TranspositionTable.getScore(table.probe(shallow)));
+	}
+
+}
@@ -10,7 +10,6 @@ import chess.engine.board.Board;
 import chess.engine.board.BoardUtils;
 import chess.engine.board.Move;
 import chess.engine.player.MoveTransition;
-import chess.gui.Table;
 
 public class ZobristHashTest {
 
@@ -31,20 +30,20 @@ public class ZobristHashTest {
 	@Test
 	public void plainTest() {
 		Board board = Board.createStandardBoard();
-		ZobristHash.fillArray();
 		long hash = ZobristHash.getZobristHash(board);
 		assertEquals(board.currentPlayer().getSide(), Side.WHITE);
 
-		Board test1 = Board.parseFEN("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1");
+		Board test1 = Board.parseFEN("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
 		assertEquals(test1.currentPlayer().getSide(), Side.BLACK);
 		long hashTest1 = ZobristHash.getZobristHash(test1);
 
 		// manual
-		// [tile][side][piece]
+		// (piece, tile)
 		long manualHash = hash;
-		manualHash ^= ZobristHash.zobristArray[BoardUtils.mailbox[85]][0][0]; 
-		manualHash ^= ZobristHash.zobristArray[BoardUtils.mailbox[65]][0][0]; 
-		manualHash ^= ZobristHash.zobristBlackMove;
+		manualHash ^= ZobristHash.pieceKey(PAWN, BoardUtils.mailbox[85]);
+		manualHash ^= ZobristHash.pieceKey(PAWN, BoardUtils.mailbox[65]);
+		manualHash ^= ZobristHash.enPassantKey(4);
+		manualHash ^= ZobristHash.blackToMoveKey();
 		assertEquals(hashTest1, manualHash);
 
 		// use method
@@ -65,7 +64,6 @@ public class ZobristHashTest {
 	@Test
 	public void captureTest() {
 		Board scandinavian = Board.parseFEN("rnbqkbnr/ppp1pppp/8/3p4/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2");
-		ZobristHash.fillArray();
 		long hash = ZobristHash.getZobristHash(scandinavian);
 		scandinavian.setInitialHashValue();
 		System.out.println(scandinavian.getHash());
@@ -84,10 +82,10 @@ public class ZobristHashTest {
 
 		// manual hash for board scandiMain
 		long manualHash = hash;
-		manualHash ^= ZobristHash.zobristArray[BoardUtils.mailbox[65]][0][0]; 
-		manualHash ^= ZobristHash.zobristArray[BoardUtils.mailbox[54]][0][0]; 
-		manualHash ^= ZobristHash.zobristArray[BoardUtils.mailbox[54]][1][0];
-		manualHash ^= ZobristHash.zobristBlackMove;
+		manualHash ^= ZobristHash.pieceKey(PAWN, BoardUtils.mailbox[65]);
+		manualHash ^= ZobristHash.pieceKey(PAWN, BoardUtils.mailbox[54]);
+		manualHash ^= ZobristHash.pieceKey(6 + PAWN, BoardUtils.mailbox[54]);
+		manualHash ^= ZobristHash.blackToMoveKey();
 		assertEquals(captureHash, manualHash);
 
 		// computed hash for board scandiMain
@@ -104,7 +102,6 @@ public class ZobristHashTest {
 	@Test
 	public void mainImplementation() {
 		Board board = Board.createStandardBoard();
-		ZobristHash.fillArray();
 		long hash = ZobristHash.getZobristHash(board);
 		board.setInitialHashValue();
 		
@@ -125,7 +122,52 @@ public class ZobristHashTest {
 		assertEquals(move1b.getBoard().getHash(), ZobristHash.updateZobristHash(
 				board.getHash(), e7e6));
 	}
-	//TODO: handle all special moves' Zobrist recalculation
-	//TODO: handle move-switch sides
+
+	/*
+	 * Every move two plies deep from positions with castling, en passant and
+	 * promotions: the hash of each board made must equal its full hash.
+	 */
+
+	@Test
+	public void specialMoves() {
+		final String[] fens = { "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+				"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+				"rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+				"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1" };
+		for (final String fen : fens) {
+			final Board board = Board.parseFEN(fen);
+			assertEquals(ZobristHash.getZobristHash(board), board.getHash());
+			checkHashes(board, 2);
+		}
+	}
+
+	@Test
+	public void keysAreFixed() {
+		// the same keys in every run, so hashes can be compared across runs: changing the seed or the
+		// generator changes these values
+		assertEquals(0x083610fb1cd7c6a5L, ZobristHash.pieceKey(PAWN, 0));
+		assertEquals(0x4416f6191e3975a5L, ZobristHash.blackToMoveKey());
+		assertEquals(0x1a38efa011e3a056L, ZobristHash.getZobristHash(Board.createStandardBoard()));
+		assertEquals(ZobristHash.getZobristHash(Board.createStandardBoard()),
+				ZobristHash.getZobristHash(Board.parseFEN("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1")));
+		assertFalse(ZobristHash.pieceKey(PAWN, 0) == ZobristHash.pieceKey(PAWN, 1));
+		assertEquals(0, ZobristHash.castlingKey(0));
+		assertEquals(ZobristHash.castlingKey(BoardUtils.ALL_CASTLING_RIGHTS),
+				ZobristHash.castlingKey(3) ^ ZobristHash.castlingKey(12));
+	}
+
+	private static void checkHashes(final Board board, final int depth) {
+		if (depth == 0) {
+			return;
+		}
+		for (final Move move : board.currentPlayer().getLegalMoves()) {
+			final MoveTransition transition = board.currentPlayer().makeMove(move);
+			if (transition.getMoveStatus().isDone()) {
+				final Board next = transition.getBoard();
+				assertEquals(move.toString(), ZobristHash.getZobristHash(next), next.getHash());
+				checkHashes(next, depth - 1);
+			}
+		}
+	}
 
 }